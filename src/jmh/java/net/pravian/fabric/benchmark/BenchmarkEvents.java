@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.benchmark;
+
+import net.pravian.fabric.event.AbstractEvent;
+import net.pravian.fabric.event.AbstractEventExecutor;
+import net.pravian.fabric.event.Event;
+import net.pravian.fabric.event.EventException;
+import net.pravian.fabric.event.annotation.Listener;
+import net.pravian.fabric.event.annotation.Register;
+import net.pravian.fabric.event.cancellable.AbstractCancellableEvent;
+import net.pravian.fabric.event.cancellable.CancellableEvent;
+
+public class BenchmarkEvents {
+
+    private BenchmarkEvents() {
+        throw new AssertionError();
+    }
+
+    // Plain hierarchy, listeners are registered on the root
+    public static class PlainEvent extends AbstractEvent {
+
+        private long value;
+
+        public void consume(long amount) {
+            value += amount;
+        }
+
+        public long getValue() {
+            return value;
+        }
+    }
+
+    public static class PlainEvent1 extends PlainEvent {
+    }
+
+    public static class PlainEvent2 extends PlainEvent1 {
+    }
+
+    public static class PlainEvent3 extends PlainEvent2 {
+    }
+
+    // Cancellable hierarchy, listeners are registered on the root
+    public static class CancelEvent extends AbstractCancellableEvent {
+
+        private long value;
+
+        public void consume(long amount) {
+            value += amount;
+        }
+
+        public long getValue() {
+            return value;
+        }
+    }
+
+    public static class CancelEvent1 extends CancelEvent {
+    }
+
+    public static class CancelEvent2 extends CancelEvent1 {
+    }
+
+    public static class CancelEvent3 extends CancelEvent2 {
+    }
+
+    public static PlainEvent newPlainEvent(int depth) {
+        switch (depth) {
+            case 0:
+                return new PlainEvent();
+            case 1:
+                return new PlainEvent1();
+            case 2:
+                return new PlainEvent2();
+            case 3:
+                return new PlainEvent3();
+            default:
+                throw new IllegalArgumentException("Unsupported depth: " + depth);
+        }
+    }
+
+    public static CancelEvent newCancelEvent(int depth) {
+        switch (depth) {
+            case 0:
+                return new CancelEvent();
+            case 1:
+                return new CancelEvent1();
+            case 2:
+                return new CancelEvent2();
+            case 3:
+                return new CancelEvent3();
+            default:
+                throw new IllegalArgumentException("Unsupported depth: " + depth);
+        }
+    }
+
+    public static class BenchmarkListener implements Listener {
+
+        private final int id;
+
+        public BenchmarkListener(int id) {
+            this.id = id;
+        }
+
+        @Register
+        public void onPlain(PlainEvent event) {
+            event.consume(id);
+        }
+
+        @Register
+        public void onCancel(CancelEvent event) {
+            event.consume(id);
+        }
+    }
+
+    public static class HandwrittenExecutor extends AbstractEventExecutor {
+
+        private final Class<? extends Event> eventClass;
+        private final int id;
+
+        public HandwrittenExecutor(Class<? extends Event> eventClass, int id) {
+            this.eventClass = eventClass;
+            this.id = id;
+        }
+
+        @Override
+        public Class<?> getEventClass() {
+            return eventClass;
+        }
+
+        @Override
+        public int getPriority() {
+            return id % 5;
+        }
+
+        @Override
+        public void execute(Event event) throws EventException {
+            if (event instanceof PlainEvent) {
+                ((PlainEvent) event).consume(id);
+            } else {
+                ((CancelEvent) event).consume(id);
+            }
+        }
+    }
+
+    // Cancels every event it sees, used to measure dispatch after early cancellation
+    public static class CancellingExecutor extends AbstractEventExecutor {
+
+        @Override
+        public Class<?> getEventClass() {
+            return CancelEvent.class;
+        }
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void execute(Event event) throws EventException {
+            ((CancellableEvent) event).setCancelled(true);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.pravian.fabric.benchmark.BenchmarkEvents.BenchmarkListener;
+import net.pravian.fabric.benchmark.BenchmarkEvents.CancelEvent;
+import net.pravian.fabric.benchmark.BenchmarkEvents.CancellingExecutor;
+import net.pravian.fabric.benchmark.BenchmarkEvents.HandwrittenExecutor;
+import net.pravian.fabric.benchmark.BenchmarkEvents.PlainEvent;
+import net.pravian.fabric.event.Event;
+import net.pravian.fabric.event.EventManager;
+import net.pravian.fabric.event.annotation.MethodEventExecutor;
+import net.pravian.fabric.event.annotation.MethodEventExecutor.Invocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    private static final int EVENTS = 1024; // Power of two
+
+    @Param({"1", "10", "100"})
+    public int listeners;
+
+    @Param({"0", "3"})
+    public int depth;
+
+    // Percentage of published events that are cancellable
+    @Param({"0", "50", "100"})
+    public int cancellablePercentage;
+
+    @Param({"REFLECTION", "METHOD_HANDLE", "GENERATED", "HANDWRITTEN", "COMPILED"})
+    public String executors;
+
+    @Param({"false", "true"})
+    public boolean cancelEarly;
+
+    private EventManager manager;
+    private Event[] events;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        manager = new EventManager();
+
+        if (cancelEarly) {
+            manager.register(new CancellingExecutor()); // Registered first, so it runs first within the lowest priority
+        }
+
+        for (int i = 0; i < listeners; i++) {
+            switch (executors) {
+                case "REFLECTION":
+                    manager.register(MethodEventExecutor.createExecutors(new BenchmarkListener(i), Invocation.REFLECTION));
+                    break;
+                case "METHOD_HANDLE":
+                case "COMPILED":
+                    manager.register(MethodEventExecutor.createExecutors(new BenchmarkListener(i)));
+                    break;
+                case "GENERATED":
+                    manager.register(new BenchmarkListener(i)); // Uses the index generated by ListenerProcessor
+                    break;
+                case "HANDWRITTEN":
+                    manager.register(new HandwrittenExecutor(PlainEvent.class, i));
+                    manager.register(new HandwrittenExecutor(CancelEvent.class, i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown executors: " + executors);
+            }
+        }
+
+        if (executors.equals("COMPILED")) {
+            manager.setCompiled(PlainEvent.class, true);
+            manager.setCompiled(CancelEvent.class, true);
+        }
+
+        events = new Event[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = (i * 100 / EVENTS) < cancellablePercentage
+                    ? BenchmarkEvents.newCancelEvent(depth)
+                    : BenchmarkEvents.newPlainEvent(depth);
+        }
+    }
+
+    @Benchmark
+    public Event call() {
+        final Event event = events[index++ & (EVENTS - 1)];
+        if (event instanceof CancelEvent) {
+            ((CancelEvent) event).setCancelled(false);
+        }
+        manager.call(event);
+        return event;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.pravian.fabric.benchmark.BenchmarkEvents.BenchmarkListener;
+import net.pravian.fabric.benchmark.BenchmarkEvents.CancelEvent;
+import net.pravian.fabric.benchmark.BenchmarkEvents.HandwrittenExecutor;
+import net.pravian.fabric.benchmark.BenchmarkEvents.PlainEvent;
+import net.pravian.fabric.event.EventExecutor;
+import net.pravian.fabric.event.EventManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int listeners;
+
+    private List<BenchmarkListener> listenerList;
+    private List<EventExecutor> executorList;
+    private EventManager populated;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        listenerList = new ArrayList<>();
+        executorList = new ArrayList<>();
+        populated = new EventManager();
+
+        for (int i = 0; i < listeners; i++) {
+            listenerList.add(new BenchmarkListener(i));
+            executorList.add(new HandwrittenExecutor(i % 2 == 0 ? PlainEvent.class : CancelEvent.class, i));
+            populated.register(new BenchmarkListener(i));
+        }
+    }
+
+    @Benchmark
+    public EventManager registerListeners() {
+        final EventManager manager = new EventManager();
+        for (BenchmarkListener listener : listenerList) {
+            manager.register(listener);
+        }
+        return manager;
+    }
+
+    @Benchmark
+    public EventManager registerExecutors() {
+        final EventManager manager = new EventManager();
+        for (EventExecutor executor : executorList) {
+            manager.register(executor);
+        }
+        return manager;
+    }
+
+    @Benchmark
+    public EventManager registerExecutorsBulk() {
+        final EventManager manager = new EventManager();
+        manager.register(executorList);
+        return manager;
+    }
+
+    @Benchmark
+    public EventManager bakeExecutors() {
+        populated.bakeExecutors();
+        return populated;
+    }
+
+    @Benchmark
+    public EventManager registerAndUnregister() {
+        populated.register(executorList.get(0)).close();
+        return populated;
+    }
+
+}
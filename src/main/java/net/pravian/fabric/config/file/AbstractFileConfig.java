@@ -30,6 +30,8 @@ import java.util.logging.Logger;
 import net.pravian.fabric.Check;
 import net.pravian.fabric.config.ConfigOptions;
 import net.pravian.fabric.config.memory.MemoryConfig;
+import net.pravian.fabric.jfr.ConfigRecord;
+import net.pravian.fabric.jfr.JfrSupport;
 
 public abstract class AbstractFileConfig extends MemoryConfig implements FileConfig {
 
@@ -48,6 +50,18 @@ public abstract class AbstractFileConfig extends MemoryConfig implements FileCon
 
     @Override
     public boolean loadFrom(File file) {
+        if (!JfrSupport.AVAILABLE) {
+            return load(file);
+        }
+
+        final ConfigRecord record = new ConfigRecord();
+        record.begin();
+        final boolean success = load(file);
+        record.commit("load", file, success);
+        return success;
+    }
+
+    private boolean load(File file) {
         try {
             return loadFrom(new FileReader(file));
         } catch (FileNotFoundException ignored) {
@@ -89,6 +103,18 @@ public abstract class AbstractFileConfig extends MemoryConfig implements FileCon
     public boolean saveTo(File file) {
         Check.notNull(file, "File may not be null");
 
+        if (!JfrSupport.AVAILABLE) {
+            return save(file);
+        }
+
+        final ConfigRecord record = new ConfigRecord();
+        record.begin();
+        final boolean success = save(file);
+        record.commit("save", file, success);
+        return success;
+    }
+
+    private boolean save(File file) {
         try {
             file = file.getAbsoluteFile();
         } catch (Exception ignored) {
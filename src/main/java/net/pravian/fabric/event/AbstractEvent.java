@@ -17,9 +17,16 @@ package net.pravian.fabric.event;
 
 public abstract class AbstractEvent implements Event {
 
+    // Set while the event is released to an EventPool, cleared when it is borrowed again
+    volatile int released;
+
     @Override
     public String getName() {
         return getClass().getSimpleName();
     }
 
+    // Restores the event to its freshly constructed state so it can be reused, see EventPool
+    public void reset() {
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import net.pravian.fabric.event.annotation.MethodEventExecutor;
+import net.pravian.fabric.event.cancellable.CancellableEvent;
+
+// Folds a baked executor array into one (Event)void method handle: each step is a direct
+// handler call, guarded by an inlined cancellation check unless the executor observes cancelled events.
+final class CompiledDispatcher {
+
+    private static final MethodType DISPATCH_TYPE = MethodType.methodType(void.class, Event.class);
+    private static final MethodHandle EXECUTE;
+    private static final MethodHandle IS_CANCELLED;
+    private static final MethodHandle HANDLE_EXCEPTION;
+    private static final MethodHandle NOOP;
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            EXECUTE = lookup.findVirtual(EventExecutor.class, "execute", DISPATCH_TYPE);
+            IS_CANCELLED = lookup.findStatic(CompiledDispatcher.class, "isCancelled", MethodType.methodType(boolean.class, Event.class));
+            HANDLE_EXCEPTION = lookup.findVirtual(EventManager.class, "handleThrowable", MethodType.methodType(void.class, Throwable.class));
+            NOOP = lookup.findStatic(CompiledDispatcher.class, "noop", DISPATCH_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private CompiledDispatcher() {
+        throw new AssertionError();
+    }
+
+    static MethodHandle compile(EventManager manager, EventExecutor[] executors, boolean cancellable) {
+        final MethodHandle onException = MethodHandles.dropArguments(HANDLE_EXCEPTION.bindTo(manager), 1, Event.class);
+
+        MethodHandle dispatcher = NOOP;
+        for (int i = executors.length - 1; i >= 0; i--) {
+            MethodHandle step = MethodHandles.catchException(getHandle(executors[i]), Throwable.class, onException);
+
+            if (cancellable && executors[i].isIgnoringCancelled()) {
+                step = MethodHandles.guardWithTest(IS_CANCELLED, NOOP, step);
+            }
+
+            dispatcher = MethodHandles.foldArguments(dispatcher, step);
+        }
+
+        return dispatcher;
+    }
+
+    private static MethodHandle getHandle(EventExecutor executor) {
+        if (executor instanceof KeyedEventExecutor) {
+            return getHandle(((KeyedEventExecutor) executor).getExecutor());
+        }
+
+        if (executor instanceof MethodEventExecutor) {
+            final MethodHandle handle = ((MethodEventExecutor) executor).getMethodHandle();
+            if (handle != null) {
+                return handle;
+            }
+        }
+
+        return EXECUTE.bindTo(executor);
+    }
+
+    private static boolean isCancelled(Event event) {
+        return ((CancellableEvent) event).isCancelled();
+    }
+
+    private static void noop(Event event) {
+    }
+
+}
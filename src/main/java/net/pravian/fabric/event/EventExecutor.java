@@ -23,4 +23,27 @@ public interface EventExecutor extends Comparable<EventExecutor> {
 
     public void execute(Event event) throws EventException;
 
+    public default boolean isIgnoringCancelled() {
+        return true;
+    }
+
+    public default boolean isAsync() {
+        return false;
+    }
+
+    // Runs on the manager's blocking executor, see EventManager.setBlockingMode
+    public default boolean isBlocking() {
+        return false;
+    }
+
+    // Name of the ExecutionContext the executor is pinned to, null runs it on the publishing thread
+    public default String getContext() {
+        return null;
+    }
+
+    // Only KeyedEvents with an equal routing key are dispatched to this executor, null receives all events
+    public default Object getRoutingKey() {
+        return null;
+    }
+
 }
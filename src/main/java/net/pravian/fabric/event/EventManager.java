@@ -15,111 +15,880 @@
  */
 package net.pravian.fabric.event;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import net.pravian.fabric.Check;
 import net.pravian.fabric.event.annotation.Listener;
+import net.pravian.fabric.event.annotation.ListenerEventExecutor;
+import net.pravian.fabric.event.annotation.ListenerIndex;
 import net.pravian.fabric.event.annotation.MethodEventExecutor;
 import net.pravian.fabric.event.cancellable.CancellableEvent;
+import net.pravian.fabric.event.journal.EventJournal;
 import net.pravian.fabric.exception.ExceptionHandler;
 import net.pravian.fabric.exception.WrappingExceptionHandler;
+import net.pravian.fabric.jfr.DispatchRecord;
+import net.pravian.fabric.jfr.ExecutorRecord;
+import net.pravian.fabric.jfr.JfrSupport;
 
 public class EventManager {
 
-    private final Map<Class<?>, List<EventExecutor>> exes = new HashMap<>();
-    private final Map<Class<?>, EventExecutor[]> bakedExecutors = new LinkedHashMap<>();
+    private final Object lock = new Object();
+    private final Map<Class<?>, List<EventExecutor>> exes = new HashMap<>(); // Guarded by lock
+    private final ReferenceQueue<Listener> collectedListeners = new ReferenceQueue<>();
+    private final ConcurrentMap<Class<?>, Sticky> stickies = new ConcurrentHashMap<>(); // Written under lock
+    private volatile Snapshot snapshot = new Snapshot(Collections.<Class<?>, EventExecutor[]>emptyMap(), Collections.<Class<?>>emptySet());
     //
-    private ExceptionHandler<EventException> exceptionHandler = new WrappingExceptionHandler<>();
+    private volatile ExceptionHandler<EventException> exceptionHandler = new WrappingExceptionHandler<>();
+    private volatile Executor asyncExecutor = ForkJoinPool.commonPool();
+    private volatile Executor blockingExecutor; // null uses the shared default
+    private volatile BlockingMode blockingMode = BlockingMode.JOIN;
+    //
+    private final ConcurrentMap<EventExecutor, ExecutorMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile boolean statisticsEnabled = false;
+    private volatile long slowExecutorThreshold = 0; // Nanoseconds, 0 disables reporting
+    private volatile SlowExecutorHandler slowExecutorHandler;
+    private volatile ObserverLane observerLane; // null runs observers inline
+    private final ConcurrentMap<Object, Coalesced> coalesced = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService coalescingScheduler; // null uses the shared default
+    private volatile TimerWheel timerWheel; // null uses the shared default
+    private volatile EventJournal journal; // null unless recording
+    private final ConcurrentMap<String, ExecutionContext> contexts = new ConcurrentHashMap<>();
+
+    public Subscription register(Listener listener) throws IllegalArgumentException {
+        return register(listener, true);
+    }
 
-    public void register(Listener listener) throws IllegalArgumentException {
-        register(listener, true);
+    public Subscription register(Listener listener, boolean rebake) throws IllegalArgumentException {
+        final ListenerIndex index = ListenerIndex.forClass(listener.getClass());
+        return register(index != null ? index.createExecutors(listener) : MethodEventExecutor.createExecutors(listener), rebake);
     }
 
-    public void register(Listener listener, boolean rebake) throws IllegalArgumentException {
-        final List<MethodEventExecutor> listenerExes = MethodEventExecutor.createExecutors(listener);
+    // The listener's handlers only receive KeyedEvents whose routing key equals the given key
+    public Subscription register(Listener listener, Object routingKey) throws IllegalArgumentException {
+        final ListenerIndex index = ListenerIndex.forClass(listener.getClass());
+        return register(index != null ? index.createExecutors(listener) : MethodEventExecutor.createExecutors(listener), routingKey);
+    }
+
+    // The listener is only weakly reachable from the manager. Once it's collected its executors do nothing,
+    // and are pruned in a single rebake by the next registration or purgeWeakListeners().
+    public Subscription registerWeak(Listener listener) throws IllegalArgumentException {
+        Check.notNull(listener, "Listener may not be null");
+
+        final WeakListenerReference reference = new WeakListenerReference(listener, collectedListeners);
+        final ListenerIndex index = ListenerIndex.forClass(listener.getClass());
+        final List<? extends EventExecutor> executors = index != null
+                ? index.createExecutors(reference)
+                : MethodEventExecutor.createExecutors(reference, MethodEventExecutor.Invocation.METHOD_HANDLE);
+        reference.setExecutors(executors);
+
+        return register(executors, true);
+    }
 
-        for (EventExecutor listenerExe : listenerExes) {
-            register(listenerExe, rebake);
+    // Returns the number of executors removed
+    public int purgeWeakListeners() {
+        synchronized (lock) {
+            final Set<Class<?>> changed = new HashSet<>();
+            final int removed = expungeCollected(changed);
+            if (removed > 0) {
+                bakeExecutors(changed);
+            }
+            return removed;
         }
     }
 
-    public void register(EventExecutor executor) {
-        register(executor, true);
+    // Removes the executors of collected listeners, the caller rebakes the changed classes
+    private int expungeCollected(Set<Class<?>> changed) {
+        int removed = 0;
+
+        Reference<? extends Listener> reference;
+        while ((reference = collectedListeners.poll()) != null) {
+            for (EventExecutor executor : ((WeakListenerReference) reference).getExecutors()) {
+                final List<EventExecutor> exesList = exes.get(executor.getEventClass());
+                if (exesList != null && remove(exesList, executor)) {
+                    metrics.remove(executor);
+                    changed.add(executor.getEventClass());
+                    removed++;
+                }
+            }
+        }
+
+        return removed;
     }
 
-    public void register(EventExecutor executor, boolean rebake) {
-        final List<EventExecutor> exe = getOrCreate(executor.getEventClass());
-        exe.add(executor);
+    public Subscription register(EventExecutor executor) {
+        return register(executor, true);
+    }
+
+    public Subscription register(EventExecutor executor, Object routingKey) {
+        return register(Collections.singletonList(executor), routingKey);
+    }
+
+    public Subscription register(Collection<? extends EventExecutor> executors, Object routingKey) {
+        Check.notNull(routingKey, "Routing key may not be null");
 
-        if (rebake) {
-            bakeExecutors(executor.getEventClass());
+        final List<EventExecutor> keyed = new ArrayList<>(executors.size());
+        for (EventExecutor executor : executors) {
+            keyed.add(new KeyedEventExecutor(executor, routingKey));
+        }
+
+        return register(keyed, true);
+    }
+
+    public Subscription register(EventExecutor executor, boolean rebake) {
+        return register(Collections.singletonList(executor), rebake);
+    }
+
+    public Subscription register(Collection<? extends EventExecutor> executors) {
+        return register(executors, true);
+    }
+
+    // Registers all executors at once, baking each affected event class only once
+    public Subscription register(Collection<? extends EventExecutor> executors, boolean rebake) {
+        final List<EventExecutor> registered = new ArrayList<>(executors);
+
+        synchronized (lock) {
+            final Set<Class<?>> changed = new LinkedHashSet<>();
+            for (EventExecutor executor : registered) {
+                insert(getOrCreate(executor.getEventClass()), executor);
+                changed.add(executor.getEventClass());
+            }
+
+            // Collected listeners are pruned in the same rebake
+            if (expungeCollected(changed) > 0 || rebake) {
+                bakeExecutors(changed);
+            }
+        }
+
+        if (!stickies.isEmpty()) {
+            deliverSticky(registered);
+        }
+
+        return new ExecutorSubscription(this, registered);
+    }
+
+    public boolean unregister(Listener listener) {
+        final List<EventExecutor> listenerExes = new ArrayList<>();
+
+        synchronized (lock) {
+            for (List<EventExecutor> exesList : exes.values()) {
+                for (EventExecutor exe : exesList) {
+                    final EventExecutor unwrapped = exe instanceof KeyedEventExecutor ? ((KeyedEventExecutor) exe).getExecutor() : exe;
+                    if (unwrapped instanceof ListenerEventExecutor
+                            && ((ListenerEventExecutor) unwrapped).getHandler() == listener) {
+                        listenerExes.add(exe);
+                    }
+                }
+            }
+
+            return unregister(listenerExes);
+        }
+    }
+
+    public boolean unregister(EventExecutor executor) {
+        return unregister(Collections.singletonList(executor));
+    }
+
+    public boolean unregister(Collection<? extends EventExecutor> executors) {
+        synchronized (lock) {
+            final Set<Class<?>> changed = new LinkedHashSet<>();
+            for (EventExecutor executor : executors) {
+                final List<EventExecutor> exesList = exes.get(executor.getEventClass());
+                if (exesList != null && remove(exesList, executor)) {
+                    changed.add(executor.getEventClass());
+                }
+            }
+
+            final boolean removed = !changed.isEmpty();
+            expungeCollected(changed);
+            if (changed.isEmpty()) {
+                return false;
+            }
+
+            metrics.keySet().removeAll(executors);
+            bakeExecutors(changed);
+            return removed;
         }
     }
 
     public void bakeExecutors() {
-        bakedExecutors.clear();
-        for (Class<?> listen : exes.keySet()) {
-            bakeExecutors(listen);
+        synchronized (lock) {
+            final Map<Class<?>, EventExecutor[]> baked = new LinkedHashMap<>();
+            for (Map.Entry<Class<?>, List<EventExecutor>> entry : exes.entrySet()) {
+                Collections.sort(entry.getValue());
+                baked.put(entry.getKey(), entry.getValue().toArray(new EventExecutor[0]));
+            }
+
+            snapshot = new Snapshot(baked, snapshot.compiled);
         }
     }
 
-    private void bakeExecutors(Class<?> listenClass) throws IllegalArgumentException {
+    // Must hold lock, the executor lists are kept sorted so baking only copies them. Costs a copy of the baked
+    // map, plans are only rebuilt for event classes with one of the changed classes in their hierarchy.
+    private void bakeExecutors(Collection<Class<?>> listenClasses) {
+        final Map<Class<?>, EventExecutor[]> baked = new LinkedHashMap<>(snapshot.baked);
 
-        final List<EventExecutor> exesList = exes.get(listenClass);
-        if (exesList == null) {
-            throw new IllegalArgumentException("No executors found for: " + listenClass.getName());
+        for (Class<?> listenClass : listenClasses) {
+            final List<EventExecutor> exesList = exes.get(listenClass);
+            if (exesList == null || exesList.isEmpty()) {
+                exes.remove(listenClass);
+                baked.remove(listenClass);
+                continue;
+            }
+
+            baked.put(listenClass, exesList.toArray(new EventExecutor[exesList.size()]));
+        }
+
+        final Snapshot previous = snapshot;
+        snapshot = new Snapshot(baked, previous.compiled, previous, new HashSet<>(listenClasses));
+    }
+
+    // Compiled event classes (and their subclasses) are dispatched through a single composed method handle
+    public void setCompiled(Class<? extends Event> eventClass, boolean compiled) {
+        synchronized (lock) {
+            final Set<Class<?>> compiledClasses = new HashSet<>(snapshot.compiled);
+            if (compiled) {
+                compiledClasses.add(eventClass);
+            } else {
+                compiledClasses.remove(eventClass);
+            }
+
+            snapshot = new Snapshot(snapshot.baked, compiledClasses);
         }
+    }
+
+    // The latest event of a sticky class, including its subclasses, is kept and handed to executors as they are registered.
+    // The instance itself is kept, so events of sticky classes must not be borrowed from an EventPool.
+    public void setSticky(Class<? extends Event> eventClass, boolean sticky) {
+        synchronized (lock) {
+            if (sticky) {
+                stickies.putIfAbsent(eventClass, new Sticky());
+            } else {
+                stickies.remove(eventClass);
+            }
+
+            snapshot = new Snapshot(snapshot.baked, snapshot.compiled);
+        }
+    }
+
+    public boolean isSticky(Class<? extends Event> eventClass) {
+        return stickies.containsKey(eventClass);
+    }
+
+    public <E extends Event> E getStickyEvent(Class<E> eventClass) {
+        final Sticky sticky = stickies.get(eventClass);
+        return sticky != null ? eventClass.cast(sticky.event) : null;
+    }
+
+    public void removeStickyEvent(Class<? extends Event> eventClass) {
+        final Sticky sticky = stickies.get(eventClass);
+        if (sticky != null) {
+            sticky.event = null;
+        }
+    }
+
+    // Runs through a plan of the new executors, so async, blocking, pinned and observing executors are dispatched as in call
+    private void deliverSticky(List<EventExecutor> executors) {
+        final Set<Event> delivered = Collections.newSetFromMap(new IdentityHashMap<Event, Boolean>());
+        for (Sticky sticky : stickies.values()) {
+            final Event event = sticky.event;
+            if (event == null || !delivered.add(event)) {
+                continue;
+            }
+
+            final List<EventExecutor> receiving = new ArrayList<>();
+            for (EventExecutor exe : executors) {
+                if (!exe.getEventClass().isInstance(event)) {
+                    continue;
+                }
+
+                if (exe.getRoutingKey() != null
+                        && (!(event instanceof KeyedEvent) || !exe.getRoutingKey().equals(((KeyedEvent) event).getRoutingKey()))) {
+                    continue;
+                }
+
+                receiving.add(exe);
+            }
+
+            if (!receiving.isEmpty()) {
+                Collections.sort(receiving);
+                dispatch(event, snapshot.createPlan(event.getClass(), receiving, false, null, null), null);
+            }
+        }
+    }
+
+    public boolean isCompiled(Class<? extends Event> eventClass) {
+        return snapshot.get(eventClass).dispatcher != null;
+    }
+
+    // Recording statistics disables compiled dispatchers, as every executor is timed individually
+    public void setStatisticsEnabled(boolean enabled) {
+        synchronized (lock) {
+            statisticsEnabled = enabled;
+            snapshot = new Snapshot(snapshot.baked, snapshot.compiled);
+        }
+    }
+
+    public boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
+
+    public Map<EventExecutor, ExecutorStatistics> getStatistics() {
+        final Map<EventExecutor, ExecutorStatistics> statistics = new LinkedHashMap<>();
+        for (ExecutorMetrics executorMetrics : metrics.values()) {
+            statistics.put(executorMetrics.getExecutor(), executorMetrics.toStatistics());
+        }
+
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    public void resetStatistics() {
+        synchronized (lock) {
+            metrics.clear();
+            snapshot = new Snapshot(snapshot.baked, snapshot.compiled);
+        }
+    }
+
+    public long getSlowExecutorThreshold(TimeUnit unit) {
+        return unit.convert(slowExecutorThreshold, TimeUnit.NANOSECONDS);
+    }
+
+    // Executors that take at least this long are reported to the slow executor handler, requires statistics
+    public void setSlowExecutorThreshold(long threshold, TimeUnit unit) {
+        Check.is(threshold >= 0, "Threshold may not be negative");
+        this.slowExecutorThreshold = unit.toNanos(threshold);
+    }
 
-        Collections.sort(exesList);
+    public SlowExecutorHandler getSlowExecutorHandler() {
+        return slowExecutorHandler;
+    }
 
-        final EventExecutor[] exeArray = exes.get(listenClass).toArray(new EventExecutor[0]);
-        bakedExecutors.put(listenClass, exeArray);
+    public void setSlowExecutorHandler(SlowExecutorHandler slowExecutorHandler) {
+        this.slowExecutorHandler = slowExecutorHandler;
     }
 
     public void call(Event event) {
-        final CancellableEvent cEvent = event instanceof CancellableEvent ? (CancellableEvent) event : null;
+        call(event, snapshot.get(event.getClass()));
+    }
+
+    // Only constructs the event if an executor would receive it, returns null otherwise.
+    // Events of sticky classes are always constructed, so they're there for executors registered later.
+    public <E extends Event> E call(Class<E> eventClass, Supplier<? extends E> factory) {
+        final Plan plan = snapshot.get(eventClass);
+        if (!plan.hasExecutors() && plan.sticky == null) {
+            return null;
+        }
+
+        final E event = factory.get();
+        call(event, event.getClass() == eventClass ? plan : snapshot.get(event.getClass()));
+        return event;
+    }
+
+    // Includes executors registered for superclasses and interfaces, and for a routing key of keyed events
+    public boolean hasListeners(Class<? extends Event> eventClass) {
+        return snapshot.get(eventClass).hasExecutors();
+    }
+
+    private void call(Event event, Plan classPlan) {
+        journal(event);
+        classPlan.stick(event);
+        final Plan plan = classPlan.route(event);
+        if (!JfrSupport.AVAILABLE) {
+            dispatch(event, plan, null);
+            return;
+        }
+
+        final DispatchRecord record = new DispatchRecord();
+        record.begin();
+        final int executed = dispatch(event, plan, null);
+        record.commit(event.getClass(), executed, plan.cancellable && ((CancellableEvent) event).isCancelled());
+    }
+
+    // Groups the events by class and runs each executor over its whole group before the next executor runs
+    public void callAll(Collection<? extends Event> events) {
+        final Map<Class<?>, List<Event>> groups = new LinkedHashMap<>();
+
+        for (Event event : events) {
+            List<Event> group = groups.get(event.getClass());
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(event.getClass(), group);
+            }
+            group.add(event);
+        }
+
+        final Snapshot current = snapshot;
+        for (Map.Entry<Class<?>, List<Event>> group : groups.entrySet()) {
+            dispatchAll(group.getValue(), current.get(group.getKey()));
+        }
+    }
+
+    public <E extends Event> void callAll(Class<E> eventClass, Collection<? extends E> events) throws IllegalArgumentException {
+        for (E event : events) {
+            Check.is(event.getClass() == eventClass, "Batch contains event of type " + event.getClass().getName()
+                    + ", expected " + eventClass.getName());
+        }
+
+        dispatchAll(events, snapshot.get(eventClass));
+    }
+
+    // Executors the lane observes are queued on it instead of running on the publishing thread, null disables offloading
+    public void setObserverLane(ObserverLane observerLane) {
+        synchronized (lock) {
+            this.observerLane = observerLane;
+            snapshot = new Snapshot(snapshot.baked, snapshot.compiled);
+        }
+    }
+
+    public ObserverLane getObserverLane() {
+        return observerLane;
+    }
+
+    // Contexts executors name but that aren't set are created as thread contexts, owned by the first thread to drain them
+    public ExecutionContext getContext(String name) {
+        Check.notNull(name, "Name may not be null");
+        return contexts.computeIfAbsent(name, ExecutionContext::new);
+    }
+
+    // Replaces the context with the same name, invocations still queued on the previous one aren't moved
+    public void setContext(ExecutionContext context) {
+        Check.notNull(context, "Context may not be null");
+        synchronized (lock) {
+            contexts.put(context.getName(), context);
+            snapshot = new Snapshot(snapshot.baked, snapshot.compiled);
+        }
+    }
+
+    public <E extends Event> void publishCoalesced(E event, Object key, long window, TimeUnit unit) {
+        publishCoalesced(event, key, window, unit, (previous, latest) -> latest);
+    }
+
+    // Events published with the same key are collapsed into one call once the window after the first
+    // has elapsed. The merge function combines the pending event with the latest one, a window of 0
+    // keeps events pending until flushCoalesced() is called, for example once per tick.
+    public <E extends Event> void publishCoalesced(E event, Object key, long window, TimeUnit unit, BinaryOperator<E> merge) {
+        Check.notNull(event, "Event may not be null");
+        Check.notNull(key, "Key may not be null");
+        Check.notNull(merge, "Merge function may not be null");
+        Check.is(window >= 0, "Window may not be negative");
+
+        final Coalesced created = new Coalesced(event);
+        final Coalesced pending = coalesced.compute(key, (k, current) -> {
+            if (current == null) {
+                return created;
+            }
+
+            @SuppressWarnings("unchecked")
+            final E merged = merge.apply((E) current.event, event);
+            current.event = Check.notNull(merged, "Merge function may not return null");
+            return current;
+        });
+
+        if (pending == created && window > 0) {
+            getCoalescingScheduler().schedule(() -> {
+                try {
+                    flush(key, created);
+                } catch (RuntimeException ex) {
+                    // Rethrown by the exception handler, the scheduled future would swallow it
+                    final Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+                }
+            }, window, unit);
+        }
+    }
+
+    public void flushCoalesced() {
+        for (Map.Entry<Object, Coalesced> entry : coalesced.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void flushCoalesced(Object key) {
+        final Coalesced pending = coalesced.get(key);
+        if (pending != null) {
+            flush(key, pending);
+        }
+    }
+
+    public int getPendingCoalesced() {
+        return coalesced.size();
+    }
+
+    private void flush(Object key, Coalesced pending) {
+        // Only removes the window that scheduled this flush, the key may have been flushed and reopened since
+        if (coalesced.remove(key, pending)) {
+            call(pending.event);
+        }
+    }
+
+    // The event is called on the thread that advances the timer wheel
+    public TimerWheel.Timeout schedule(Event event, long delay, TimeUnit unit) {
+        Check.notNull(event, "Event may not be null");
+        return getTimerWheel().schedule(() -> call(event), delay, unit);
+    }
+
+    // The same instance is called every period
+    public TimerWheel.Timeout scheduleRepeating(Event event, long delay, long period, TimeUnit unit) {
+        Check.notNull(event, "Event may not be null");
+        return getTimerWheel().scheduleRepeating(() -> call(event), delay, period, unit);
+    }
+
+    // Completes with the event once all executors, including async ones, have run
+    public <E extends Event> CompletableFuture<E> callAsync(final E event) {
+        final Plan classPlan = snapshot.get(event.getClass());
+        journal(event);
+        classPlan.stick(event);
+        final Plan plan = classPlan.route(event);
+
+        return CompletableFuture.supplyAsync(() -> {
+            final List<CompletableFuture<Void>> pending = new ArrayList<>();
+            dispatch(event, plan, pending);
+            return pending;
+        }, asyncExecutor).thenCompose(pending -> CompletableFuture
+                .allOf(pending.toArray(new CompletableFuture<?>[pending.size()]))
+                .thenApply(v -> event));
+    }
+
+    // Returns the number of executors that were run or handed off, compiled dispatchers always report all executors
+    private int dispatch(final Event event, Plan plan, List<CompletableFuture<Void>> pending) {
+        final EventExecutor[] executors = plan.executors;
+        if (executors.length == 0) {
+            return 0;
+        }
+
+        if (plan.dispatcher != null) {
+            try {
+                plan.dispatcher.invokeExact(event);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+            return executors.length;
+        }
+
+        final CancellableEvent cEvent = plan.cancellable ? (CancellableEvent) event : null;
+        final ExceptionHandler<EventException> handler = exceptionHandler;
+        final boolean joinBlocking = plan.blocking != null && blockingMode == BlockingMode.JOIN;
+        Event observed = null; // Snapshot handed to offloaded observers, retaken once another executor ran
+        List<CompletableFuture<Void>> blockingGroup = null; // Consecutive blocking executors, joined before the next executor
+        int executed = 0;
+
+        for (int i = 0; i < executors.length; i++) {
+            if (cEvent != null && cEvent.isCancelled()) {
+                i = plan.observers[i]; // Skip to the next executor that still wants cancelled events
+            }
+
+            // Join before anything that isn't part of the group runs, including after a skip
+            if (blockingGroup != null && (i == executors.length || !plan.blocking[i])) {
+                await(blockingGroup);
+                blockingGroup = null;
+
+                if (cEvent != null && cEvent.isCancelled()) {
+                    i = plan.observers[i]; // The joined executors may have cancelled the event
+                }
+            }
+
+            if (i == executors.length) {
+                break;
+            }
+
+            final EventExecutor exe = executors[i];
+            final ExecutorMetrics exeMetrics = plan.metrics != null ? plan.metrics[i] : null;
+            executed++;
+            if (plan.observed == null || !plan.observed[i]) {
+                observed = null; // The executor may modify the event, so MONITOR_OUT observers see the outcome
+            }
+
+            if (plan.async != null && plan.async[i]) {
+                final Runnable task = () -> execute(exe, event, handler, exeMetrics);
+                if (pending != null) {
+                    pending.add(CompletableFuture.runAsync(task, asyncExecutor));
+                } else {
+                    executeReported(asyncExecutor, task);
+                }
+                continue;
+            }
+
+            if (plan.blocking != null && plan.blocking[i]) {
+                final Runnable task = () -> execute(exe, event, handler, exeMetrics);
+                if (joinBlocking) {
+                    if (blockingGroup == null) {
+                        blockingGroup = new ArrayList<>();
+                    }
+                    blockingGroup.add(CompletableFuture.runAsync(task, getBlockingExecutor()));
+                } else if (pending != null) {
+                    pending.add(CompletableFuture.runAsync(task, getBlockingExecutor()));
+                } else {
+                    executeReported(getBlockingExecutor(), task);
+                }
+                continue;
+            }
+
+            if (plan.contexts != null && plan.contexts[i] != null && !plan.contexts[i].isInline()) {
+                handOff(plan.contexts[i], () -> execute(exe, event, handler, exeMetrics), pending);
+                continue;
+            }
+
+            if (plan.observed != null && plan.observed[i]) {
+                if (observed == null) {
+                    observed = plan.lane.snapshot(event);
+                }
+                final Event snapshotEvent = observed;
+                plan.lane.submit(() -> execute(exe, snapshotEvent, handler, exeMetrics));
+                continue;
+            }
+
+            execute(exe, event, handler, exeMetrics);
+        }
+
+        if (blockingGroup != null) {
+            await(blockingGroup);
+        }
+
+        return executed;
+    }
+
+    private void dispatchAll(Collection<? extends Event> events, Plan plan) {
+        if (journal != null) {
+            for (Event event : events) {
+                journal(event);
+            }
+        }
+
+        if (plan.sticky != null) {
+            for (Event event : events) {
+                plan.stick(event); // Leaves the last one
+            }
+        }
+
+        if (plan.routes != null) {
+            for (Event event : events) {
+                dispatch(event, plan.route(event), null);
+            }
+            return;
+        }
 
-        // Add the executor to all the 
-        Class<?> current = event.getClass();
-        while (current != null) {
-            final EventExecutor[] executors = bakedExecutors.get(current);
+        final EventExecutor[] executors = plan.executors;
+        if (executors.length == 0 || events.isEmpty()) {
+            return;
+        }
+
+        final ExceptionHandler<EventException> handler = exceptionHandler;
+        final boolean joinBlocking = blockingMode == BlockingMode.JOIN;
+        Event[] snapshots = null; // Per event, shared by consecutive observers like in dispatch
+
+        for (int i = 0; i < executors.length; i++) {
+            final EventExecutor exe = executors[i];
+            final ExecutorMetrics exeMetrics = plan.metrics != null ? plan.metrics[i] : null;
+            final boolean async = plan.async != null && plan.async[i];
+            final boolean blocking = plan.blocking != null && plan.blocking[i];
+            final boolean observed = plan.observed != null && plan.observed[i];
+            final ExecutionContext context = plan.contexts != null ? plan.contexts[i] : null;
+            final List<CompletableFuture<Void>> blockingGroup = blocking && joinBlocking ? new ArrayList<>(events.size()) : null;
+            final boolean ignoresCancelled = plan.cancellable && plan.observers[i] != i;
+            if (!observed) {
+                snapshots = null;
+            } else if (snapshots == null) {
+                snapshots = new Event[events.size()];
+            }
+
+            int index = -1;
+            for (final Event event : events) {
+                index++;
+                if (ignoresCancelled && ((CancellableEvent) event).isCancelled()) {
+                    continue;
+                }
+
+                if (async) {
+                    executeReported(asyncExecutor, () -> execute(exe, event, handler, exeMetrics));
+                    continue;
+                }
 
-            if (executors != null) {
-                for (EventExecutor exe : executors) {
-                    if (cEvent != null && cEvent.isCancelled()) {
-                        continue;
+                if (blocking) {
+                    final Runnable task = () -> execute(exe, event, handler, exeMetrics);
+                    if (blockingGroup != null) {
+                        blockingGroup.add(CompletableFuture.runAsync(task, getBlockingExecutor()));
+                    } else {
+                        executeReported(getBlockingExecutor(), task);
                     }
+                    continue;
+                }
+
+                if (context != null && !context.isInline()) {
+                    handOff(context, () -> execute(exe, event, handler, exeMetrics), null);
+                    continue;
+                }
 
-                    try {
-                        exe.execute(event);
-                    } catch (Exception ex) {
-                        if (exceptionHandler != null) {
-                            EventException eex = (EventException) (ex instanceof EventException ? ex : new EventException("Uncaught exception while handling event", ex));
-                            exceptionHandler.handle(eex);
-                        }
+                if (observed) {
+                    if (snapshots[index] == null) {
+                        snapshots[index] = plan.lane.snapshot(event);
                     }
+                    final Event snapshotEvent = snapshots[index];
+                    plan.lane.submit(() -> execute(exe, snapshotEvent, handler, exeMetrics));
+                    continue;
                 }
+
+                execute(exe, event, handler, exeMetrics);
             }
 
-            // Find parent
-            Class<?> superClass = current.getSuperclass();
-            if (superClass == null) {
-                // Find superinterface
-                Class<?>[] inter = current.getInterfaces();
-                if (inter.length == 1) {
-                    current = inter[0];
-                } else {
-                    break; // No more parent interfaces
+            if (blockingGroup != null) {
+                await(blockingGroup);
+            }
+        }
+    }
+
+    // The pending future completes once the context has run the invocation
+    private static void handOff(ExecutionContext context, Runnable task, List<CompletableFuture<Void>> pending) {
+        if (pending == null) {
+            context.submit(task);
+            return;
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        pending.add(future);
+        context.submit(() -> {
+            try {
+                task.run();
+                future.complete(null);
+            } catch (RuntimeException | Error ex) {
+                future.completeExceptionally(ex);
+                throw ex;
+            }
+        });
+    }
+
+    // Nobody waits for the task, so what the exception handler rethrew is reported to the executing thread
+    private static void executeReported(Executor executor, Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+            }
+        });
+    }
+
+    // Rethrows what the exception handler threw on the blocking thread
+    private static void await(List<CompletableFuture<Void>> futures) {
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
                 }
-            } else {
-                current = superClass;
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw ex;
             }
         }
     }
 
+    private void execute(EventExecutor exe, Event event, ExceptionHandler<EventException> handler, ExecutorMetrics exeMetrics) {
+        if (exeMetrics == null && JfrSupport.AVAILABLE) {
+            final ExecutorRecord record = new ExecutorRecord();
+            record.begin();
+            try {
+                exe.execute(event);
+            } catch (Exception ex) {
+                handleException(ex, handler);
+            } finally {
+                record.commit(exe, event.getClass());
+            }
+            return;
+        }
+
+        if (exeMetrics == null) {
+            try {
+                exe.execute(event);
+            } catch (Exception ex) {
+                handleException(ex, handler);
+            }
+            return;
+        }
+
+        final ExecutorRecord record = JfrSupport.AVAILABLE ? new ExecutorRecord() : null;
+        if (record != null) {
+            record.begin();
+        }
+
+        Exception failure = null;
+        final long start = System.nanoTime();
+        try {
+            exe.execute(event);
+        } catch (Exception ex) {
+            failure = ex;
+        }
+        final long nanos = System.nanoTime() - start;
+
+        if (record != null) {
+            record.commit(exe, event.getClass());
+        }
+
+        exeMetrics.record(nanos, failure != null);
+
+        final long threshold = slowExecutorThreshold;
+        final SlowExecutorHandler slowHandler = slowExecutorHandler;
+        if (threshold > 0 && nanos >= threshold && slowHandler != null) {
+            slowHandler.handle(exe, event, nanos);
+        }
+
+        if (failure != null) {
+            handleException(failure, handler);
+        }
+    }
+
+    void handleException(Exception ex) {
+        handleException(ex, exceptionHandler);
+    }
+
+    // Compiled dispatchers catch errors too, as MethodEventExecutor wraps them in the loop path
+    void handleThrowable(Throwable ex) {
+        handleException(ex instanceof Exception ? (Exception) ex : new EventException("Uncaught exception whilst executing event", ex));
+    }
+
+    private static void handleException(Exception ex, ExceptionHandler<EventException> handler) {
+        if (handler != null) {
+            EventException eex = (EventException) (ex instanceof EventException ? ex : new EventException("Uncaught exception while handling event", ex));
+            handler.handle(eex);
+        }
+    }
+
+    // Executors that receive every event of the class, keyed executors are only included for events with their key
+    public EventExecutor[] getExecutors(Class<? extends Event> eventClass) {
+        return snapshot.get(eventClass).executors.clone();
+    }
+
     public ExceptionHandler<EventException> getExceptionHandler() {
         return exceptionHandler;
     }
@@ -128,10 +897,128 @@ public class EventManager {
         this.exceptionHandler = exceptionHandler;
     }
 
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = Check.notNull(asyncExecutor);
+    }
+
+    public Executor getBlockingExecutor() {
+        final Executor executor = blockingExecutor;
+        return executor != null ? executor : DefaultBlockingExecutor.INSTANCE;
+    }
+
+    // Defaults to a virtual thread per task when running on Java 21 or later, a cached pool of daemon threads otherwise
+    public void setBlockingExecutor(Executor blockingExecutor) {
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    public ScheduledExecutorService getCoalescingScheduler() {
+        final ScheduledExecutorService scheduler = coalescingScheduler;
+        return scheduler != null ? scheduler : DefaultCoalescingScheduler.INSTANCE;
+    }
+
+    // Coalesced events are called on this scheduler's threads once their window elapses
+    public void setCoalescingScheduler(ScheduledExecutorService coalescingScheduler) {
+        this.coalescingScheduler = coalescingScheduler;
+    }
+
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    // Events are appended before they're dispatched, null stops recording
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    private void journal(Event event) {
+        final EventJournal current = journal;
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.append(event);
+        } catch (IOException ex) {
+            handleException(new EventException("Could not append event to journal", ex));
+        }
+    }
+
+    public TimerWheel getTimerWheel() {
+        final TimerWheel wheel = timerWheel;
+        return wheel != null ? wheel : DefaultTimerWheel.INSTANCE;
+    }
+
+    // Defaults to a shared wheel with 1 millisecond ticks advanced on its own daemon thread. Install a wheel
+    // that isn't started and advance it from the main thread to have scheduled events called there.
+    public void setTimerWheel(TimerWheel timerWheel) {
+        this.timerWheel = timerWheel;
+    }
+
+    public BlockingMode getBlockingMode() {
+        return blockingMode;
+    }
+
+    public void setBlockingMode(BlockingMode blockingMode) {
+        this.blockingMode = Check.notNull(blockingMode);
+    }
+
     public Map<Class<?>, EventExecutor[]> getBakedExecutors() {
-        return Collections.unmodifiableMap(bakedExecutors);
+        return snapshot.baked;
+    }
+
+    private static Set<Class<?>> getHierarchy(Class<?> clazz) {
+        final Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        final Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(clazz);
+
+        while (!queue.isEmpty()) {
+            final Class<?> current = queue.poll();
+            if (!hierarchy.add(current)) {
+                continue;
+            }
+
+            if (current.getSuperclass() != null) {
+                queue.add(current.getSuperclass());
+            }
+            Collections.addAll(queue, current.getInterfaces());
+        }
+
+        return hierarchy;
+    }
+
+    // Inserts after all executors of equal priority, the same order a stable sort would give
+    private static void insert(List<EventExecutor> exesList, EventExecutor executor) {
+        int low = 0;
+        int high = exesList.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (exesList.get(mid).compareTo(executor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        exesList.add(low, executor);
     }
 
+    private static boolean remove(List<EventExecutor> exesList, EventExecutor executor) {
+        for (int i = 0; i < exesList.size(); i++) {
+            if (exesList.get(i) == executor) {
+                exesList.remove(i);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Must hold lock
     private List<EventExecutor> getOrCreate(Class<?> clazz) {
         List<EventExecutor> exe = exes.get(clazz);
 
@@ -143,4 +1030,315 @@ public class EventManager {
         return exe;
     }
 
+    public static enum BlockingMode {
+
+        // Consecutive blocking executors run concurrently, the dispatcher waits for them before continuing
+        JOIN,
+        // Blocking executors are started and not waited for
+        FIRE_AND_FORGET;
+    }
+
+    private static final class DefaultBlockingExecutor {
+
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                // Before Java 21, or a preview feature that isn't enabled
+                final AtomicInteger count = new AtomicInteger();
+                return Executors.newCachedThreadPool(runnable -> {
+                    final Thread thread = new Thread(runnable, "Fabric Blocking Executor #" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    private static final class DefaultCoalescingScheduler {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Fabric Coalescing Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class DefaultTimerWheel {
+
+        private static final TimerWheel INSTANCE = new TimerWheel(1, TimeUnit.MILLISECONDS);
+
+        static {
+            INSTANCE.start();
+        }
+    }
+
+    private static final class Sticky {
+
+        private volatile Event event;
+    }
+
+    private static final class Coalesced {
+
+        private volatile Event event; // Written under the map's lock for the key
+
+        private Coalesced(Event event) {
+            this.event = event;
+        }
+    }
+
+    // Immutable view of the baked executors, dispatch plans are computed lazily per event class
+    private final class Snapshot extends ClassValue<Plan> {
+
+        private final Map<Class<?>, EventExecutor[]> baked;
+        private final Set<Class<?>> compiled;
+        private volatile Snapshot previous; // Source of plans for hierarchies without changed classes, null once superseded
+        private final Set<Class<?>> changed;
+
+        private Snapshot(Map<Class<?>, EventExecutor[]> baked, Set<Class<?>> compiled) {
+            this(baked, compiled, null, Collections.<Class<?>>emptySet());
+        }
+
+        // Only the previous snapshot is kept, so superseded snapshots can still be collected
+        private Snapshot(Map<Class<?>, EventExecutor[]> baked, Set<Class<?>> compiled, Snapshot previous, Set<Class<?>> changed) {
+            this.baked = Collections.unmodifiableMap(baked);
+            this.compiled = Collections.unmodifiableSet(compiled);
+            this.previous = previous;
+            this.changed = changed;
+            if (previous != null) {
+                previous.previous = null;
+            }
+        }
+
+        // Merges the executors of the event class and all its supertypes into one priority-sorted array
+        @Override
+        protected Plan computeValue(Class<?> eventClass) {
+            final Set<Class<?>> hierarchy = getHierarchy(eventClass);
+            final Snapshot reusable = previous;
+            if (reusable != null && Collections.disjoint(hierarchy, changed)) {
+                return reusable.get(eventClass); // Same executors as before the change
+            }
+
+            final List<EventExecutor> plan = new ArrayList<>();
+            final List<Sticky> planStickies = new ArrayList<>(0);
+            boolean compile = false;
+
+            for (Class<?> type : hierarchy) {
+                final EventExecutor[] executors = baked.get(type);
+                if (executors != null) {
+                    Collections.addAll(plan, executors);
+                }
+                compile |= compiled.contains(type);
+
+                final Sticky sticky = stickies.get(type);
+                if (sticky != null) {
+                    planStickies.add(sticky);
+                }
+            }
+
+            final Sticky[] sticky = planStickies.isEmpty() ? null : planStickies.toArray(new Sticky[planStickies.size()]);
+
+            Collections.sort(plan); // Stable, more specific types go first within a priority
+
+            if (!KeyedEvent.class.isAssignableFrom(eventClass)) {
+                return createPlan(eventClass, unkeyed(plan), compile, null, sticky);
+            }
+
+            // Only the keyed executors are grouped here, plans per routing key are built on first dispatch
+            final List<EventExecutor> unkeyed = unkeyed(plan);
+            final Map<Object, List<EventExecutor>> keyed = new HashMap<>();
+            for (EventExecutor exe : plan) {
+                final Object key = exe.getRoutingKey();
+                if (key == null) {
+                    continue;
+                }
+
+                List<EventExecutor> keyExecutors = keyed.get(key);
+                if (keyExecutors == null) {
+                    keyExecutors = new ArrayList<>(1);
+                    keyed.put(key, keyExecutors);
+                }
+                keyExecutors.add(exe);
+            }
+
+            final boolean compileRoutes = compile;
+            final Routes routes = keyed.isEmpty() ? null : new Routes(unkeyed, keyed, merged -> createPlan(eventClass, merged, compileRoutes, null, null));
+            return createPlan(eventClass, unkeyed, compile, routes, sticky);
+        }
+
+        private Plan createPlan(Class<?> eventClass, List<EventExecutor> plan, boolean compile, Routes routes, Sticky[] sticky) {
+            ExecutorMetrics[] planMetrics = null;
+            if (statisticsEnabled) {
+                planMetrics = new ExecutorMetrics[plan.size()];
+                for (int i = 0; i < planMetrics.length; i++) {
+                    planMetrics[i] = metrics.computeIfAbsent(plan.get(i), ExecutorMetrics::new);
+                }
+            }
+
+            return new Plan(EventManager.this, CancellableEvent.class.isAssignableFrom(eventClass),
+                    plan.toArray(new EventExecutor[plan.size()]), compile, planMetrics, routes, observerLane, sticky);
+        }
+
+        private List<EventExecutor> unkeyed(List<EventExecutor> plan) {
+            final List<EventExecutor> unkeyed = new ArrayList<>(plan.size());
+            for (EventExecutor exe : plan) {
+                if (exe.getRoutingKey() == null) {
+                    unkeyed.add(exe);
+                }
+            }
+            return unkeyed;
+        }
+    }
+
+    // Keyed executors per routing key. The plan merging them with the executors that receive all keys is only
+    // built once an event with that key is dispatched, so rebaking doesn't cost a plan per registered key.
+    private static final class Routes {
+
+        private final List<EventExecutor> unkeyed;
+        private final Map<Object, List<EventExecutor>> keyed;
+        private final Function<List<EventExecutor>, Plan> factory;
+        private final ConcurrentMap<Object, Plan> plans = new ConcurrentHashMap<>();
+
+        private Routes(List<EventExecutor> unkeyed, Map<Object, List<EventExecutor>> keyed, Function<List<EventExecutor>, Plan> factory) {
+            this.unkeyed = unkeyed;
+            this.keyed = keyed;
+            this.factory = factory;
+        }
+
+        // null if no executors are registered for the key
+        private Plan get(Object key) {
+            final Plan plan = plans.get(key);
+            if (plan != null) {
+                return plan;
+            }
+
+            final List<EventExecutor> keyExecutors = keyed.get(key);
+            if (keyExecutors == null) {
+                return null;
+            }
+
+            return plans.computeIfAbsent(key, k -> {
+                final List<EventExecutor> merged = new ArrayList<>(unkeyed.size() + keyExecutors.size());
+                merged.addAll(unkeyed);
+                merged.addAll(keyExecutors);
+                Collections.sort(merged); // Stable, executors for all keys go first within a priority
+                return factory.apply(merged);
+            });
+        }
+    }
+
+    private static final class Plan {
+
+        private final boolean cancellable;
+        private final EventExecutor[] executors;
+        private final int[] observers; // Index of the next executor that observes cancelled events, null if not cancellable
+        private final boolean[] async; // null if all executors run on the calling thread
+        private final boolean[] blocking; // null if no executors run on the blocking executor
+        private final ExecutionContext[] contexts; // null if all executors run on the publishing thread
+        private final MethodHandle dispatcher; // null unless compiled
+        private final ExecutorMetrics[] metrics; // null unless statistics are enabled
+        private final Routes routes; // null unless keyed executors are registered
+        private final ObserverLane lane;
+        private final boolean[] observed; // null if no executors are offloaded to the lane
+        private final Sticky[] sticky; // Slots of the sticky classes in the hierarchy, null if there are none
+
+        private Plan(EventManager manager, boolean cancellable, EventExecutor[] executors, boolean compile, ExecutorMetrics[] metrics,
+                Routes routes, ObserverLane lane, Sticky[] sticky) {
+            this.cancellable = cancellable;
+            this.executors = executors;
+
+            if (cancellable) {
+                observers = new int[executors.length + 1];
+                observers[executors.length] = executors.length;
+                for (int i = executors.length - 1; i >= 0; i--) {
+                    observers[i] = executors[i].isIgnoringCancelled() ? observers[i + 1] : i;
+                }
+            } else {
+                observers = null;
+            }
+
+            boolean[] asyncFlags = null;
+            for (int i = 0; i < executors.length; i++) {
+                if (executors[i].isAsync()) {
+                    if (asyncFlags == null) {
+                        asyncFlags = new boolean[executors.length];
+                    }
+                    asyncFlags[i] = true;
+                }
+            }
+            this.async = asyncFlags;
+
+            boolean[] blockingFlags = null;
+            for (int i = 0; i < executors.length; i++) {
+                if (executors[i].isBlocking() && (asyncFlags == null || !asyncFlags[i])) { // Async takes precedence
+                    if (blockingFlags == null) {
+                        blockingFlags = new boolean[executors.length];
+                    }
+                    blockingFlags[i] = true;
+                }
+            }
+            this.blocking = blockingFlags;
+
+            ExecutionContext[] pinned = null;
+            for (int i = 0; i < executors.length; i++) {
+                final String context = executors[i].getContext();
+                if (context != null && (asyncFlags == null || !asyncFlags[i]) && (blockingFlags == null || !blockingFlags[i])) {
+                    if (pinned == null) {
+                        pinned = new ExecutionContext[executors.length];
+                    }
+                    pinned[i] = manager.getContext(context);
+                }
+            }
+            this.contexts = pinned;
+            this.metrics = metrics;
+            this.routes = routes;
+            this.lane = lane;
+            this.sticky = sticky;
+
+            boolean[] observedFlags = null;
+            for (int i = 0; lane != null && i < executors.length; i++) {
+                if ((asyncFlags == null || !asyncFlags[i]) && (blockingFlags == null || !blockingFlags[i]) && (pinned == null || pinned[i] == null)
+                        && lane.isObserving(executors[i])) {
+                    if (observedFlags == null) {
+                        observedFlags = new boolean[executors.length];
+                    }
+                    observedFlags[i] = true;
+                }
+            }
+            this.observed = observedFlags;
+
+            // Async, blocking, pinned and offloaded executors can't be part of a straight-line dispatcher
+            this.dispatcher = compile && asyncFlags == null && blockingFlags == null && pinned == null && observedFlags == null && metrics == null
+                    && executors.length > 0
+                    ? CompiledDispatcher.compile(manager, executors, cancellable)
+                    : null;
+        }
+
+        private boolean hasExecutors() {
+            return executors.length > 0 || routes != null;
+        }
+
+        private void stick(Event event) {
+            if (sticky == null) {
+                return;
+            }
+
+            for (Sticky slot : sticky) {
+                slot.event = event;
+            }
+        }
+
+        private Plan route(Event event) {
+            if (routes == null) {
+                return this;
+            }
+
+            final Object key = ((KeyedEvent) event).getRoutingKey();
+            final Plan routed = key != null ? routes.get(key) : null;
+            return routed != null ? routed : this;
+        }
+    }
+
 }
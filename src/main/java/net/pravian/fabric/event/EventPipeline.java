@@ -0,0 +1,270 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import net.pravian.fabric.Check;
+
+// Hands events from any number of producer threads to consumer threads that call them on an EventManager.
+// Events are stored in a preallocated power-of-two ring, every slot carries a sequence number which
+// producers and consumers claim with a single CAS on the tail and head counters respectively.
+public class EventPipeline {
+
+    private static final int MAX_ATTEMPT = 200; // Wait strategies park from here on
+    //
+    private final EventManager manager;
+    private final int mask;
+    private final Event[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+    private final BackPressure backPressure;
+    private final List<Thread> consumers;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger publishing = new AtomicInteger(); // Publishers past the stopped check
+    private volatile boolean stopped = false;
+
+    public EventPipeline(EventManager manager, int capacity, int consumers, WaitStrategy waitStrategy, BackPressure backPressure) {
+        this(manager, capacity, consumers, waitStrategy, backPressure, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "Fabric Event Pipeline #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public EventPipeline(EventManager manager, int capacity, int consumers, WaitStrategy waitStrategy, BackPressure backPressure,
+            ThreadFactory threadFactory) {
+        Check.is(capacity > 0 && (capacity & (capacity - 1)) == 0, "Capacity must be a power of two");
+        Check.is(consumers > 0, "There must be at least one consumer");
+        this.manager = Check.notNull(manager);
+        this.waitStrategy = Check.notNull(waitStrategy);
+        this.backPressure = Check.notNull(backPressure);
+        Check.notNull(threadFactory);
+
+        this.mask = capacity - 1;
+        this.buffer = new Event[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+
+        this.consumers = new ArrayList<>(consumers);
+        for (int i = 0; i < consumers; i++) {
+            this.consumers.add(threadFactory.newThread(this::consume));
+        }
+    }
+
+    // Events published before the pipeline is started are buffered
+    public void start() {
+        for (Thread consumer : consumers) {
+            consumer.start();
+        }
+    }
+
+    // Returns false if the event was dropped
+    public boolean publish(Event event) {
+        Check.notNull(event);
+        publishing.incrementAndGet(); // Before the check, so consumers don't stop while the event is offered
+        try {
+            if (stopped) {
+                throw new IllegalStateException("Pipeline has been stopped");
+            }
+
+            int attempt = 0;
+            while (!offer(event)) {
+                switch (backPressure) {
+                    case BLOCK:
+                        waitStrategy.idle(attempt);
+                        attempt = Math.min(attempt + 1, MAX_ATTEMPT);
+                        if (stopped) {
+                            dropped.increment();
+                            return false;
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        dropped.increment();
+                        return false;
+                    case DROP_OLDEST:
+                        if (poll() != null) {
+                            dropped.increment();
+                        }
+                        break;
+                }
+            }
+
+            return true;
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    // Stops accepting events, lets the consumers call what has been published and waits for them to finish
+    public void stop() throws InterruptedException {
+        stopped = true;
+        for (Thread consumer : consumers) {
+            if (consumer.isAlive()) {
+                consumer.join();
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    public int getPending() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public BackPressure getBackPressure() {
+        return backPressure;
+    }
+
+    private void consume() {
+        int attempt = 0;
+        while (true) {
+            final Event event = poll();
+            if (event == null) {
+                if (stopped && publishing.get() == 0 && tail.get() == head.get()) {
+                    return;
+                }
+                waitStrategy.idle(attempt);
+                attempt = Math.min(attempt + 1, MAX_ATTEMPT);
+                continue;
+            }
+
+            attempt = 0;
+            try {
+                manager.call(event);
+            } catch (RuntimeException ex) {
+                // Rethrown by the exception handler, report it without losing the consumer
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+            }
+        }
+    }
+
+    private boolean offer(Event event) {
+        long pos = tail.get();
+        while (true) {
+            final int index = (int) pos & mask;
+            final long diff = sequences.get(index) - pos;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer[index] = event;
+                    sequences.lazySet(index, pos + 1); // Publish to consumers
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // Full, the slot hasn't been consumed a lap ago
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private Event poll() {
+        long pos = head.get();
+        while (true) {
+            final int index = (int) pos & mask;
+            final long diff = sequences.get(index) - (pos + 1);
+
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    final Event event = buffer[index];
+                    buffer[index] = null;
+                    sequences.lazySet(index, pos + buffer.length); // Release the slot for the next lap
+                    return event;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // Empty, or the producer hasn't published yet
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    public static enum WaitStrategy {
+
+        // Lowest latency, occupies a core per waiting thread
+        BUSY_SPIN {
+            @Override
+            void idle(int attempt) {
+            }
+        },
+        YIELD {
+            @Override
+            void idle(int attempt) {
+                Thread.yield();
+            }
+        },
+        // Spins and yields briefly before parking, lowest CPU usage
+        PARK {
+            @Override
+            void idle(int attempt) {
+                if (attempt < 100) {
+                    return;
+                }
+
+                if (attempt < 200) {
+                    Thread.yield();
+                    return;
+                }
+
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        };
+
+        private static final long PARK_NANOS = 50000;
+
+        abstract void idle(int attempt);
+    }
+
+    public static enum BackPressure {
+
+        // Wait for a free slot using the wait strategy
+        BLOCK,
+        // Discard the event being published
+        DROP_NEWEST,
+        // Discard the oldest pending event to make room
+        DROP_OLDEST;
+    }
+
+}
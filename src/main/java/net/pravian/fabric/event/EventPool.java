@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import net.pravian.fabric.Check;
+
+// Per-thread pool of reusable events. Pooled events must not be retained by executors,
+// which includes async executors and sticky classes: the instance is reset and handed out again once released.
+// Releasing an AbstractEvent twice fails on any thread, other events are not checked.
+public class EventPool<E extends Event> {
+
+    public static final int DEFAULT_CAPACITY = 16;
+    private static final AtomicIntegerFieldUpdater<AbstractEvent> RELEASED
+            = AtomicIntegerFieldUpdater.newUpdater(AbstractEvent.class, "released");
+    //
+    private final Supplier<? extends E> factory;
+    private final Consumer<? super E> resetter;
+    private final int capacity;
+    private final ThreadLocal<ArrayDeque<E>> pools = new ThreadLocal<ArrayDeque<E>>() {
+        @Override
+        protected ArrayDeque<E> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    public EventPool(Supplier<? extends E> factory, Consumer<? super E> resetter) {
+        this(factory, resetter, DEFAULT_CAPACITY);
+    }
+
+    public EventPool(Supplier<? extends E> factory, Consumer<? super E> resetter, int capacity) {
+        Check.is(capacity > 0, "Capacity must be positive");
+        this.factory = Check.notNull(factory);
+        this.resetter = Check.notNull(resetter);
+        this.capacity = capacity;
+    }
+
+    public E borrow() {
+        final E event = pools.get().poll();
+        if (event == null) {
+            return factory.get();
+        }
+
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).released = 0;
+        }
+        return event;
+    }
+
+    public void release(E event) throws IllegalArgumentException {
+        Check.notNull(event);
+        if (event instanceof AbstractEvent) {
+            // Stays set if the pool is full and drops the event, so a later release still fails
+            Check.is(RELEASED.compareAndSet((AbstractEvent) event, 0, 1), "Event has already been released");
+        }
+
+        resetter.accept(event);
+        final ArrayDeque<E> pool = pools.get();
+        if (pool.size() < capacity) {
+            pool.push(event);
+        }
+    }
+
+    // Borrows an event, lets the initializer fill it, calls it and releases it again
+    public void call(EventManager manager, Consumer<? super E> initializer) {
+        final E event = borrow();
+        try {
+            initializer.accept(event);
+            manager.call(event);
+        } finally {
+            release(event);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public static <E extends AbstractEvent> EventPool<E> of(Supplier<? extends E> factory) {
+        return new EventPool<>(factory, AbstractEvent::reset);
+    }
+
+    public static <E extends AbstractEvent> EventPool<E> of(Supplier<? extends E> factory, int capacity) {
+        return new EventPool<>(factory, AbstractEvent::reset, capacity);
+    }
+
+}
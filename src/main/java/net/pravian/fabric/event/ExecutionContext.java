@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import net.pravian.fabric.Check;
+
+// A thread or pool that executors can be pinned to. Invocations from other threads are handed off:
+// thread contexts queue them until the owner calls drain(), pool contexts run them on their executor.
+public class ExecutionContext {
+
+    public static final String MAIN = "main";
+    //
+    private final String name;
+    private final Executor executor; // null if owned by a single thread
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>(); // Many publishers, drained by the owner
+    private final AtomicReference<Thread> owner = new AtomicReference<>(); // null until claimed
+
+    // Owned by the first thread that binds or drains it
+    public ExecutionContext(String name) {
+        this(name, null);
+    }
+
+    public ExecutionContext(String name, Executor executor) {
+        this.name = Check.notNull(name);
+        this.executor = executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Thread getOwner() {
+        return owner.get();
+    }
+
+    // Makes the current thread the owner, invocations published on it run inline from then on
+    public void bind() {
+        Check.is(executor == null, "Pool contexts have no owner thread");
+        claim();
+    }
+
+    public boolean isOwnerThread() {
+        return owner.get() == Thread.currentThread();
+    }
+
+    // Runs the invocations handed off so far, call once per tick or at another safe point. An exception
+    // thrown by the exception handler propagates to the caller, the remaining invocations stay queued.
+    public int drain() {
+        claim();
+
+        int drained = 0;
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            drained++;
+            task.run();
+        }
+        return drained;
+    }
+
+    // Ownership is claimed once, other threads can't take it over
+    private void claim() {
+        final Thread current = Thread.currentThread();
+        if (!owner.compareAndSet(null, current) && owner.get() != current) {
+            throw new IllegalStateException("Context " + name + " is owned by " + owner.get().getName());
+        }
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    // Returns true if the invocation may run inline on the current thread
+    boolean isInline() {
+        return executor == null && isOwnerThread();
+    }
+
+    void submit(Runnable task) {
+        if (executor != null) {
+            executor.execute(task);
+            return;
+        }
+
+        queue.offer(task);
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionContext[" + name + "]";
+    }
+
+}
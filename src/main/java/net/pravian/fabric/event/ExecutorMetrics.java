@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Striped counters, so that concurrent dispatches of the same executor don't contend
+class ExecutorMetrics {
+
+    private final EventExecutor executor;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder exceptions = new LongAdder();
+
+    ExecutorMetrics(EventExecutor executor) {
+        this.executor = executor;
+    }
+
+    EventExecutor getExecutor() {
+        return executor;
+    }
+
+    void record(long nanos, boolean failed) {
+        invocations.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (failed) {
+            exceptions.increment();
+        }
+    }
+
+    ExecutorStatistics toStatistics() {
+        return new ExecutorStatistics(executor, invocations.sum(), totalNanos.sum(), maxNanos.get(), exceptions.sum());
+    }
+
+}
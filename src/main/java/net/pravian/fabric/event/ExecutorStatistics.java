@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+public class ExecutorStatistics {
+
+    private final EventExecutor executor;
+    private final long invocations;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long exceptions;
+
+    public ExecutorStatistics(EventExecutor executor, long invocations, long totalNanos, long maxNanos, long exceptions) {
+        this.executor = executor;
+        this.invocations = invocations;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.exceptions = exceptions;
+    }
+
+    public EventExecutor getExecutor() {
+        return executor;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getAverageNanos() {
+        return invocations == 0 ? 0 : totalNanos / invocations;
+    }
+
+    public long getExceptions() {
+        return exceptions;
+    }
+
+    @Override
+    public String toString() {
+        return executor + ": " + invocations + " invocations, " + getAverageNanos() + "ns avg, "
+                + maxNanos + "ns max, " + exceptions + " exceptions";
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ExecutorSubscription implements Subscription {
+
+    private final EventManager manager;
+    private final List<EventExecutor> executors;
+    private final AtomicBoolean active = new AtomicBoolean(true);
+
+    ExecutorSubscription(EventManager manager, List<EventExecutor> executors) {
+        this.manager = manager;
+        this.executors = Collections.unmodifiableList(executors);
+    }
+
+    @Override
+    public List<EventExecutor> getExecutors() {
+        return executors;
+    }
+
+    @Override
+    public boolean isActive() {
+        return active.get();
+    }
+
+    @Override
+    public void close() {
+        if (active.compareAndSet(true, false)) {
+            manager.unregister(executors);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import net.pravian.fabric.Check;
+
+public class KeyedEventExecutor extends AbstractEventExecutor {
+
+    private final EventExecutor executor;
+    private final Object routingKey;
+
+    public KeyedEventExecutor(EventExecutor executor, Object routingKey) {
+        this.executor = Check.notNull(executor);
+        this.routingKey = Check.notNull(routingKey);
+    }
+
+    public EventExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public Object getRoutingKey() {
+        return routingKey;
+    }
+
+    @Override
+    public Class<?> getEventClass() {
+        return executor.getEventClass();
+    }
+
+    @Override
+    public int getPriority() {
+        return executor.getPriority();
+    }
+
+    @Override
+    public boolean isIgnoringCancelled() {
+        return executor.isIgnoringCancelled();
+    }
+
+    @Override
+    public boolean isAsync() {
+        return executor.isAsync();
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return executor.isBlocking();
+    }
+
+    @Override
+    public String getContext() {
+        return executor.getContext();
+    }
+
+    @Override
+    public void execute(Event event) throws EventException {
+        executor.execute(event);
+    }
+
+    @Override
+    public String toString() {
+        return executor + "@" + routingKey;
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import net.pravian.fabric.Check;
+import net.pravian.fabric.event.annotation.EventPriority;
+
+// Runs observe-only executors off the publishing thread. Offloaded invocations are queued in a
+// bounded queue and drained one at a time, in submission order, on the given executor.
+public class ObserverLane {
+
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final UnaryOperator<Event> snapshotter;
+    private final BlockingQueue<Runnable> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+
+    // Drains on a dedicated daemon thread
+    public ObserverLane(int capacity, OverflowPolicy overflowPolicy) {
+        this(Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Fabric Observer Lane");
+            thread.setDaemon(true);
+            return thread;
+        }), capacity, overflowPolicy);
+    }
+
+    public ObserverLane(Executor executor, int capacity, OverflowPolicy overflowPolicy) {
+        this(executor, capacity, overflowPolicy, UnaryOperator.identity());
+    }
+
+    // Observers receive the snapshot instead of the published event, retaken after other executors ran.
+    // Copy events that are modified or reused after the call, such as pooled events.
+    public ObserverLane(Executor executor, int capacity, OverflowPolicy overflowPolicy, UnaryOperator<Event> snapshotter) {
+        Check.is(capacity > 0, "Capacity must be positive");
+        this.executor = Check.notNull(executor);
+        this.capacity = capacity;
+        this.overflowPolicy = Check.notNull(overflowPolicy);
+        this.snapshotter = Check.notNull(snapshotter);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public boolean isObserving(EventExecutor executor) {
+        final int priority = executor.getPriority();
+        return priority == EventPriority.MONITOR_IN.getPriority()
+                || priority == EventPriority.MONITOR_OUT.getPriority();
+    }
+
+    Event snapshot(Event event) {
+        return snapshotter.apply(event);
+    }
+
+    void submit(Runnable task) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(task);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                    return;
+                }
+                break;
+            case DROP_NEWEST:
+                if (!queue.offer(task)) {
+                    dropped.increment();
+                    return;
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(task)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                if (!queue.offer(task)) {
+                    task.run();
+                    return;
+                }
+                break;
+        }
+
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            scheduled.set(false);
+            throw ex;
+        }
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    // Rethrown by the exception handler, report it without stalling the remaining observers
+                    final Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+        }
+
+        // Catch tasks submitted after the last poll but before the flag was cleared
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public static enum OverflowPolicy {
+
+        // Wait for space, applying back-pressure to the publisher
+        BLOCK,
+        // Discard the invocation that didn't fit
+        DROP_NEWEST,
+        // Discard the longest waiting invocation to make room
+        DROP_OLDEST,
+        // Run the invocation on the publishing thread
+        CALLER_RUNS;
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import net.pravian.fabric.Check;
+
+// Hashed hierarchical timer wheel. Each level has 64 slots, a slot on level n covers 64^n ticks and is
+// cascaded into the lower levels once the wheel reaches it. Slots are doubly linked lists, so inserting
+// and cancelling are constant time. Tasks run on the thread that advances the wheel: either the thread
+// started with start(), or any thread calling advance() at a safe point, for example once per tick.
+public class TimerWheel {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+    //
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final Slot[][] wheels = new Slot[LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>(); // Inserted on the next advance
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>(); // Unlinked on the next advance
+    private final AtomicInteger pending = new AtomicInteger();
+    private long tick = 0; // Guarded by this
+    private volatile Thread ticker;
+
+    public TimerWheel(long tickDuration, TimeUnit unit) {
+        this(tickDuration, unit, System::nanoTime);
+    }
+
+    TimerWheel(long tickDuration, TimeUnit unit, LongSupplier clock) {
+        Check.is(tickDuration > 0, "Tick duration must be positive");
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.clock = Check.notNull(clock);
+        this.startNanos = clock.getAsLong();
+
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return schedule(task, delay, 0, unit);
+    }
+
+    // Runs at a fixed rate, ticks that were missed while the wheel wasn't advanced are not made up for
+    public Timeout scheduleRepeating(Runnable task, long delay, long period, TimeUnit unit) {
+        Check.is(period > 0, "Period must be positive");
+        return schedule(task, delay, period, unit);
+    }
+
+    private Timeout schedule(Runnable task, long delay, long period, TimeUnit unit) {
+        Check.notNull(task, "Task may not be null");
+        Check.is(delay >= 0, "Delay may not be negative");
+
+        final long elapsed = clock.getAsLong() - startNanos;
+        final long deadline = ticks(elapsed + unit.toNanos(delay));
+        final Timeout timeout = new Timeout(this, task, deadline, period > 0 ? Math.max(1, ticks(unit.toNanos(period))) : 0);
+
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    // Runs every task that is due, returns the number of tasks run
+    public synchronized int advance() {
+        final long target = (clock.getAsLong() - startNanos) / tickNanos;
+
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            timeout.unlink();
+        }
+
+        int run = 0;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.isWaiting()) {
+                run += insert(timeout);
+            }
+        }
+
+        while (tick < target) {
+            tick++;
+            run += cascade();
+
+            final Slot slot = wheels[0][(int) (tick & WHEEL_MASK)];
+            while ((timeout = slot.head) != null) {
+                timeout.unlink();
+                run += insert(timeout); // Runs it, unless it was placed early because it was out of range
+            }
+        }
+
+        return run;
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    public long getTickDuration(TimeUnit unit) {
+        return unit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Advances the wheel on a daemon thread every tick
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+
+        final Thread thread = new Thread(this::tick, "Fabric Timer Wheel");
+        thread.setDaemon(true);
+        ticker = thread;
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        final Thread thread = ticker;
+        ticker = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void tick() {
+        final Thread thread = Thread.currentThread();
+        while (ticker == thread) {
+            advance();
+
+            final long elapsed = clock.getAsLong() - startNanos;
+            LockSupport.parkNanos(tickNanos - elapsed % tickNanos);
+        }
+    }
+
+    private long ticks(long nanos) {
+        return (nanos + tickNanos - 1) / tickNanos; // Round up, never run early
+    }
+
+    // Moves the slots that have come due on the higher levels down, returns the number of tasks that were due right away
+    private int cascade() {
+        int run = 0;
+        for (int level = 1; level < LEVELS; level++) {
+            final int shift = WHEEL_BITS * level;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+
+            final Slot slot = wheels[level][(int) ((tick >>> shift) & WHEEL_MASK)];
+            Timeout timeout;
+            while ((timeout = slot.head) != null) {
+                timeout.unlink();
+                run += insert(timeout);
+            }
+        }
+        return run;
+    }
+
+    // Places the timeout in its slot or runs it when due, returns the number of tasks run
+    private int insert(Timeout timeout) {
+        final long delta = timeout.deadline - tick;
+        if (delta <= 0) {
+            return run(timeout);
+        }
+
+        // Out of range timeouts go into the furthest slot and are placed again once it cascades
+        final long target = delta > MAX_DELTA ? tick + MAX_DELTA : timeout.deadline;
+        int level = 0;
+        while (level < LEVELS - 1 && (target - tick) >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        wheels[level][(int) ((target >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(timeout);
+        return 0;
+    }
+
+    private int run(Timeout timeout) {
+        // Repeating timeouts stay waiting, but may have been cancelled since the cancelled inbox was drained
+        if (timeout.period == 0 ? !timeout.expire() : !timeout.isWaiting()) {
+            return 0; // Cancelled
+        }
+
+        try {
+            timeout.task.run();
+        } catch (RuntimeException ex) {
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+        }
+
+        if (timeout.period > 0 && timeout.isWaiting()) {
+            timeout.deadline = Math.max(timeout.deadline + timeout.period, tick + 1);
+            insert(timeout);
+        }
+        return 1;
+    }
+
+    private static final class Slot {
+
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+    }
+
+    public static final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        //
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long period; // Ticks, 0 if not repeating
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long deadline; // Tick, the fields below are only touched while advancing the wheel
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline, long period) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        // Safe to call from any thread, the timeout is unlinked the next time the wheel advances
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public boolean isRepeating() {
+            return period > 0;
+        }
+
+        private boolean isWaiting() {
+            return state.get() == WAITING;
+        }
+
+        private boolean expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return false;
+            }
+
+            wheel.pending.decrementAndGet();
+            return true;
+        }
+
+        private void unlink() {
+            if (slot == null) {
+                return;
+            }
+
+            if (prev == null) {
+                slot.head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                slot.tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            slot = null;
+            prev = null;
+            next = null;
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import net.pravian.fabric.event.annotation.Listener;
+
+// Remembers the executors created for a weakly registered listener, so they can be pruned once it's collected
+final class WeakListenerReference extends WeakReference<Listener> {
+
+    private volatile List<? extends EventExecutor> executors = Collections.emptyList();
+
+    WeakListenerReference(Listener listener, ReferenceQueue<? super Listener> queue) {
+        super(listener, queue);
+    }
+
+    List<? extends EventExecutor> getExecutors() {
+        return executors;
+    }
+
+    void setExecutors(List<? extends EventExecutor> executors) {
+        this.executors = executors;
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.annotation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.pravian.fabric.event.Event;
+
+// Validated @Register handler metadata, scanned once per listener class and shared by all its instances
+public final class HandlerDescriptor {
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Listener.class, Event.class);
+    private static final ClassValue<List<HandlerDescriptor>> DESCRIPTORS = new ClassValue<List<HandlerDescriptor>>() {
+        @Override
+        protected List<HandlerDescriptor> computeValue(Class<?> listenerClass) {
+            return scan(listenerClass);
+        }
+    };
+    //
+    private final Method method;
+    private final Class<? extends Event> eventClass;
+    private final int priority;
+    private final boolean ignoreCancelled;
+    private final boolean async;
+    private final boolean blocking;
+    private final String context; // null runs on the publishing thread
+    private final MethodHandle handle; // (Listener, Event)void, null if the method can't be unreflected
+
+    private HandlerDescriptor(Method method) {
+        final Register register = method.getAnnotation(Register.class);
+        final Modify modify = method.getAnnotation(Modify.class);
+
+        this.method = method;
+        this.eventClass = (Class<? extends Event>) method.getParameterTypes()[0];
+        this.priority = modify != null ? modify.priority().getPriority() : EventPriority.NORMAL.getPriority();
+        this.ignoreCancelled = (register == null || register.ignoreCancelled()) && (modify == null || modify.ignoreCancelled());
+        this.async = register != null && register.async();
+        this.blocking = register != null && register.blocking();
+        this.context = register != null && !register.context().isEmpty() ? register.context() : null;
+        this.handle = createHandle(method);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isIgnoringCancelled() {
+        return ignoreCancelled;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isBlocking() {
+        return blocking;
+    }
+
+    public String getContext() {
+        return context;
+    }
+
+    // (Listener, Event)void, null if the method can only be invoked reflectively
+    public MethodHandle getHandle() {
+        return handle;
+    }
+
+    // (Event)void bound to the listener, null if the method can only be invoked reflectively
+    public MethodHandle bind(Listener listener) {
+        return handle != null ? handle.bindTo(listener) : null;
+    }
+
+    public static HandlerDescriptor of(Method method) {
+        return new HandlerDescriptor(method);
+    }
+
+    public static List<HandlerDescriptor> forClass(Class<? extends Listener> listenerClass) throws IllegalArgumentException {
+        return DESCRIPTORS.get(listenerClass);
+    }
+
+    private static List<HandlerDescriptor> scan(Class<?> listenerClass) throws IllegalArgumentException {
+        final List<HandlerDescriptor> descriptors = new ArrayList<>();
+
+        // getMethods() already includes inherited public methods
+        for (Method method : listenerClass.getMethods()) {
+            if (method.getAnnotation(Register.class) == null) {
+                continue;
+            }
+
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length != 1
+                    || !Event.class.isAssignableFrom(parameterTypes[0])
+                    || !method.getReturnType().equals(Void.TYPE)) {
+                throw new IllegalArgumentException("Could not register handlers for class: " + listenerClass.getName()
+                        + ". Handler " + method.getName() + " isn't defined properly.");
+            }
+
+            descriptors.add(new HandlerDescriptor(method));
+        }
+
+        return Collections.unmodifiableList(descriptors);
+    }
+
+    private static MethodHandle createHandle(Method method) {
+        try {
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+
+            final MethodHandle mh = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                return MethodHandles.dropArguments(mh.asType(MethodType.methodType(void.class, Event.class)), 0, Listener.class);
+            }
+
+            return mh.asType(HANDLER_TYPE);
+        } catch (IllegalAccessException | SecurityException ex) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.annotation;
+
+import java.lang.ref.Reference;
+import net.pravian.fabric.event.AbstractEventExecutor;
+import net.pravian.fabric.event.Event;
+
+// Base for executors that invoke a handler method on a Listener, either reflectively or generated
+public abstract class ListenerEventExecutor extends AbstractEventExecutor {
+
+    private final Listener handler; // null when held through a reference
+    private final Reference<? extends Listener> reference; // null unless registered weakly
+    private final Class<? extends Event> eventClass;
+    private final int priority;
+    private final boolean ignoreCancelled;
+    private final boolean async;
+    private final boolean blocking;
+    private final String context;
+
+    protected ListenerEventExecutor(Listener handler, Class<? extends Event> eventClass, int priority, boolean ignoreCancelled, boolean async) {
+        this(handler, eventClass, priority, ignoreCancelled, async, false);
+    }
+
+    protected ListenerEventExecutor(Listener handler, Class<? extends Event> eventClass, int priority, boolean ignoreCancelled, boolean async,
+            boolean blocking) {
+        this(handler, eventClass, priority, ignoreCancelled, async, blocking, null);
+    }
+
+    protected ListenerEventExecutor(Listener handler, Class<? extends Event> eventClass, int priority, boolean ignoreCancelled, boolean async,
+            boolean blocking, String context) {
+        this(handler, null, eventClass, priority, ignoreCancelled, async, blocking, context);
+    }
+
+    // The handler is only reachable through the reference, getHandler() returns null once it's cleared
+    protected ListenerEventExecutor(Reference<? extends Listener> reference, Class<? extends Event> eventClass, int priority, boolean ignoreCancelled,
+            boolean async, boolean blocking) {
+        this(reference, eventClass, priority, ignoreCancelled, async, blocking, null);
+    }
+
+    protected ListenerEventExecutor(Reference<? extends Listener> reference, Class<? extends Event> eventClass, int priority, boolean ignoreCancelled,
+            boolean async, boolean blocking, String context) {
+        this(null, reference, eventClass, priority, ignoreCancelled, async, blocking, context);
+    }
+
+    private ListenerEventExecutor(Listener handler, Reference<? extends Listener> reference, Class<? extends Event> eventClass, int priority,
+            boolean ignoreCancelled, boolean async, boolean blocking, String context) {
+        this.handler = handler;
+        this.reference = reference;
+        this.eventClass = eventClass;
+        this.priority = priority;
+        this.ignoreCancelled = ignoreCancelled;
+        this.async = async;
+        this.blocking = blocking;
+        this.context = context;
+    }
+
+    @Override
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public boolean isIgnoringCancelled() {
+        return ignoreCancelled;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return blocking;
+    }
+
+    @Override
+    public String getContext() {
+        return context;
+    }
+
+    public Listener getHandler() {
+        return reference != null ? reference.get() : handler;
+    }
+
+    public boolean isWeak() {
+        return reference != null;
+    }
+
+}
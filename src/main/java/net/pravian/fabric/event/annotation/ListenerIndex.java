@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.annotation;
+
+import java.lang.ref.Reference;
+import java.util.List;
+import net.pravian.fabric.event.EventExecutor;
+
+// Implemented by the classes ListenerProcessor generates for each listener with @Register handlers
+public abstract class ListenerIndex {
+
+    public static final String SUFFIX = "$$ListenerIndex";
+    //
+    private static final ClassValue<ListenerIndex> INDEXES = new ClassValue<ListenerIndex>() {
+        @Override
+        protected ListenerIndex computeValue(Class<?> listenerClass) {
+            try {
+                final Class<?> indexClass = Class.forName(listenerClass.getName() + SUFFIX, true, listenerClass.getClassLoader());
+                return (ListenerIndex) indexClass.newInstance();
+            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException | LinkageError ex) {
+                return null;
+            }
+        }
+    };
+
+    public abstract List<EventExecutor> createExecutors(Listener listener);
+
+    // Executors that only hold the listener through the reference
+    public abstract List<EventExecutor> createExecutors(Reference<? extends Listener> reference);
+
+    // Returns null if no index was generated for the class
+    public static ListenerIndex forClass(Class<? extends Listener> listenerClass) {
+        return INDEXES.get(listenerClass);
+    }
+
+}
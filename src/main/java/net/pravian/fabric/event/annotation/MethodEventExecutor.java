@@ -15,50 +15,82 @@
  */
 package net.pravian.fabric.event.annotation;
 
-import net.pravian.fabric.event.AbstractEventExecutor;
+import java.lang.invoke.MethodHandle;
+import java.lang.ref.Reference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import net.pravian.fabric.event.Event;
 import net.pravian.fabric.event.EventException;
-import net.pravian.fabric.event.cancellable.CancellableEvent;
 
-public class MethodEventExecutor extends AbstractEventExecutor {
+public class MethodEventExecutor extends ListenerEventExecutor {
 
-    private final Listener handler;
     private final Method method;
-    private final Modify modify;
-    private final Class<? extends Event> listenClass;
+    private final MethodHandle handle; // null when falling back to reflection or registered weakly
+    private final MethodHandle unbound; // (Listener, Event)void, null unless registered weakly
 
     public MethodEventExecutor(Listener handler, Method method) {
-        this.handler = handler;
-        this.method = method;
-        this.modify = method.getAnnotation(Modify.class);
-        this.listenClass = (Class<? extends Event>) method.getParameterTypes()[0];
+        this(handler, method, Invocation.METHOD_HANDLE);
     }
 
-    @Override
-    public Class<? extends Event> getEventClass() {
-        return listenClass;
+    public MethodEventExecutor(Listener handler, Method method, Invocation invocation) {
+        this(handler, HandlerDescriptor.of(method), invocation);
     }
 
-    @Override
-    public int getPriority() {
-        if (modify != null) {
-            return modify.priority().getPriority();
-        }
+    public MethodEventExecutor(Listener handler, HandlerDescriptor descriptor, Invocation invocation) {
+        super(handler, descriptor.getEventClass(), descriptor.getPriority(), descriptor.isIgnoringCancelled(), descriptor.isAsync(),
+                descriptor.isBlocking(), descriptor.getContext());
+        this.method = descriptor.getMethod();
+        this.handle = invocation == Invocation.METHOD_HANDLE ? descriptor.bind(handler) : null;
+        this.unbound = null;
+    }
+
+    // The receiver isn't bound into the handle, so it stays only weakly reachable
+    public MethodEventExecutor(Reference<? extends Listener> reference, HandlerDescriptor descriptor, Invocation invocation) {
+        super(reference, descriptor.getEventClass(), descriptor.getPriority(), descriptor.isIgnoringCancelled(), descriptor.isAsync(),
+                descriptor.isBlocking(), descriptor.getContext());
+        this.method = descriptor.getMethod();
+        this.handle = null;
+        this.unbound = invocation == Invocation.METHOD_HANDLE ? descriptor.getHandle() : null;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    // (Event)void, null when invoked through reflection or registered weakly
+    public MethodHandle getMethodHandle() {
+        return handle;
+    }
 
-        return EventPriority.NORMAL.getPriority();
+    public Invocation getInvocation() {
+        return handle != null || unbound != null ? Invocation.METHOD_HANDLE : Invocation.REFLECTION;
     }
 
     @Override
     public void execute(Event event) throws EventException {
-        if (modify != null && modify.ignoreCancelled()) {
-            if (event instanceof CancellableEvent
-                    && ((CancellableEvent) event).isCancelled()) {
-                return;
+        if (handle != null) {
+            try {
+                handle.invokeExact(event);
+            } catch (Throwable ex) {
+                throw new EventException("Uncaught exception whilst executing event", ex);
+            }
+            return;
+        }
+
+        final Listener handler = getHandler();
+        if (handler == null) {
+            return; // Collected, the executor is pruned once the manager expunges it
+        }
+
+        if (unbound != null) {
+            try {
+                unbound.invokeExact(handler, event);
+            } catch (Throwable ex) {
+                throw new EventException("Uncaught exception whilst executing event", ex);
             }
+            return;
         }
 
         try {
@@ -70,30 +102,44 @@ public class MethodEventExecutor extends AbstractEventExecutor {
         }
     }
 
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + method.getDeclaringClass().getName() + "#" + method.getName()
+                + ", " + getInvocation() + "]";
+    }
+
     public static List<MethodEventExecutor> createExecutors(Listener listener) throws IllegalArgumentException {
-        List<MethodEventExecutor> executors = new ArrayList<>();
+        return createExecutors(listener, Invocation.METHOD_HANDLE);
+    }
+
+    // Handler metadata is cached per listener class, only the receiver is bound per instance
+    public static List<MethodEventExecutor> createExecutors(Listener listener, Invocation invocation) throws IllegalArgumentException {
+        final List<HandlerDescriptor> descriptors = HandlerDescriptor.forClass(listener.getClass());
+        final List<MethodEventExecutor> executors = new ArrayList<>(descriptors.size());
 
-        Class<?> current = listener.getClass();
+        for (HandlerDescriptor descriptor : descriptors) {
+            executors.add(new MethodEventExecutor(listener, descriptor, invocation));
+        }
 
-        do {
-            for (Method method : current.getMethods()) {
-                if (method.getAnnotation(Register.class) == null) {
-                    continue;
-                }
+        return executors;
+    }
 
-                final Class<?>[] parameterTypes = method.getParameterTypes();
-                if (parameterTypes.length != 1
-                        || !Event.class.isAssignableFrom(parameterTypes[0])
-                        || !method.getReturnType().equals(Void.TYPE)) {
-                    throw new IllegalArgumentException("Could not register handlers for class: " + listener.getClass().getName()
-                            + ". Handler " + method.getName() + " isn't defined properly.");
-                }
+    // The reference must not be cleared yet
+    public static List<MethodEventExecutor> createExecutors(Reference<? extends Listener> reference, Invocation invocation) throws IllegalArgumentException {
+        final List<HandlerDescriptor> descriptors = HandlerDescriptor.forClass(reference.get().getClass());
+        final List<MethodEventExecutor> executors = new ArrayList<>(descriptors.size());
 
-                executors.add(new MethodEventExecutor(listener, method));
-            }
-        } while ((current = current.getSuperclass()) != null);
+        for (HandlerDescriptor descriptor : descriptors) {
+            executors.add(new MethodEventExecutor(reference, descriptor, invocation));
+        }
 
         return executors;
     }
 
+    public static enum Invocation {
+
+        METHOD_HANDLE,
+        REFLECTION;
+    }
+
 }
@@ -26,4 +26,12 @@ public @interface Register {
 
     public boolean ignoreCancelled() default true;
 
+    public boolean async() default false;
+
+    // Runs the handler on the manager's blocking executor, virtual threads where available
+    public boolean blocking() default false;
+
+    // Name of the ExecutionContext to run the handler in, for example ExecutionContext.MAIN. Empty runs it on the publishing thread
+    public String context() default "";
+
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import net.pravian.fabric.event.Event;
+import net.pravian.fabric.event.annotation.EventPriority;
+import net.pravian.fabric.event.annotation.Listener;
+import net.pravian.fabric.event.annotation.ListenerIndex;
+import net.pravian.fabric.event.annotation.Modify;
+import net.pravian.fabric.event.annotation.Register;
+
+// Generates a ListenerIndex with one typed executor per @Register handler for every concrete listener class.
+// Listeners that can't be indexed are left to the reflective MethodEventExecutor at runtime.
+@SupportedAnnotationTypes("*")
+public class ListenerProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement type : ElementFilter.typesIn(round.getRootElements())) {
+            processType(type);
+        }
+
+        return false;
+    }
+
+    private void processType(TypeElement type) {
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            processType(nested);
+        }
+
+        if (type.getKind() != ElementKind.CLASS
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !isAssignable(type.asType(), Listener.class)) {
+            return;
+        }
+
+        final List<ExecutableElement> handlers = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getAnnotation(Register.class) != null
+                    && method.getModifiers().contains(Modifier.PUBLIC)) {
+                handlers.add(method);
+            }
+        }
+
+        if (handlers.isEmpty()) {
+            return;
+        }
+
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        if (!isAccessible(type, pkg)) {
+            note(type, "Listener isn't accessible from its package, it will be registered reflectively");
+            return;
+        }
+
+        for (ExecutableElement handler : handlers) {
+            if (handler.getParameters().size() != 1
+                    || !isAssignable(handler.getParameters().get(0).asType(), Event.class)
+                    || handler.getReturnType().getKind() != TypeKind.VOID) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Handler " + handler.getSimpleName() + " isn't defined properly, listener can't be registered", handler);
+                return;
+            }
+
+            final Element eventType = processingEnv.getTypeUtils().asElement(erasure(handler.getParameters().get(0).asType()));
+            if (!(eventType instanceof TypeElement) || !isAccessible((TypeElement) eventType, pkg)) {
+                note(type, "Event type of " + handler.getSimpleName() + " isn't accessible, listener will be registered reflectively");
+                return;
+            }
+        }
+
+        try {
+            writeIndex(type, pkg, handlers);
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write listener index: " + ex.getMessage(), type);
+        }
+    }
+
+    private void writeIndex(TypeElement type, PackageElement pkg, List<ExecutableElement> handlers) throws IOException {
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final String indexName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + ListenerIndex.SUFFIX;
+        final String listenerName = erasure(type.asType()).toString();
+
+        final StringBuilder src = new StringBuilder();
+        if (!pkg.isUnnamed()) {
+            src.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+
+        src.append("public final class ").append(indexName).append(" extends net.pravian.fabric.event.annotation.ListenerIndex {\n\n");
+        src.append("    @Override\n");
+        src.append("    public java.util.List<net.pravian.fabric.event.EventExecutor> createExecutors(net.pravian.fabric.event.annotation.Listener listener) {\n");
+        src.append("        final java.util.List<net.pravian.fabric.event.EventExecutor> executors = new java.util.ArrayList<>(").append(handlers.size()).append(");\n");
+        for (int i = 0; i < handlers.size(); i++) {
+            src.append("        executors.add(new Handler").append(i).append("(listener));\n");
+        }
+        src.append("        return executors;\n");
+        src.append("    }\n\n");
+        src.append("    @Override\n");
+        src.append("    public java.util.List<net.pravian.fabric.event.EventExecutor> createExecutors(java.lang.ref.Reference<? extends net.pravian.fabric.event.annotation.Listener> reference) {\n");
+        src.append("        final java.util.List<net.pravian.fabric.event.EventExecutor> executors = new java.util.ArrayList<>(").append(handlers.size()).append(");\n");
+        for (int i = 0; i < handlers.size(); i++) {
+            src.append("        executors.add(new Handler").append(i).append("(reference));\n");
+        }
+        src.append("        return executors;\n");
+        src.append("    }\n");
+
+        for (int i = 0; i < handlers.size(); i++) {
+            final ExecutableElement handler = handlers.get(i);
+            final Register register = handler.getAnnotation(Register.class);
+            final Modify modify = handler.getAnnotation(Modify.class);
+            final EventPriority priority = modify != null ? modify.priority() : EventPriority.NORMAL;
+            final boolean ignoreCancelled = register.ignoreCancelled() && (modify == null || modify.ignoreCancelled());
+            final String eventName = erasure(handler.getParameters().get(0).asType()).toString();
+            final boolean isStatic = handler.getModifiers().contains(Modifier.STATIC);
+            final String superArgs = eventName + ".class, "
+                    + "net.pravian.fabric.event.annotation.EventPriority." + priority.name() + ".getPriority(), "
+                    + ignoreCancelled + ", " + register.async() + ", " + register.blocking() + ", "
+                    + (register.context().isEmpty() ? "null" : processingEnv.getElementUtils().getConstantExpression(register.context()));
+
+            src.append("\n");
+            src.append("    private static final class Handler").append(i).append(" extends net.pravian.fabric.event.annotation.ListenerEventExecutor {\n\n");
+            src.append("        private Handler").append(i).append("(net.pravian.fabric.event.annotation.Listener listener) {\n");
+            src.append("            super(listener, ").append(superArgs).append(");\n");
+            src.append("        }\n\n");
+            src.append("        private Handler").append(i).append("(java.lang.ref.Reference<? extends net.pravian.fabric.event.annotation.Listener> reference) {\n");
+            src.append("            super(reference, ").append(superArgs).append(");\n");
+            src.append("        }\n\n");
+            src.append("        @Override\n");
+            src.append("        public void execute(net.pravian.fabric.event.Event event) throws net.pravian.fabric.event.EventException {\n");
+            if (!isStatic) {
+                src.append("            final ").append(listenerName).append(" handler = (").append(listenerName).append(") getHandler();\n");
+                src.append("            if (handler == null) {\n");
+                src.append("                return; // Weakly registered and collected\n");
+                src.append("            }\n");
+            }
+            src.append("            try {\n");
+            src.append("                ").append(isStatic ? listenerName : "handler").append(".").append(handler.getSimpleName())
+                    .append("((").append(eventName).append(") event);\n");
+            src.append("            } catch (Throwable ex) {\n");
+            src.append("                throw new net.pravian.fabric.event.EventException(\"Uncaught exception whilst executing event\", ex);\n");
+            src.append("            }\n");
+            src.append("        }\n\n");
+            src.append("        @Override\n");
+            src.append("        public String toString() {\n");
+            src.append("            return \"").append(indexName).append("[").append(type.getQualifiedName())
+                    .append("#").append(handler.getSimpleName()).append("]\";\n");
+            src.append("        }\n");
+            src.append("    }\n");
+        }
+
+        src.append("\n}\n");
+
+        final String qualifiedName = pkg.isUnnamed() ? indexName : pkg.getQualifiedName() + "." + indexName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(src.toString());
+        }
+    }
+
+    private boolean isAccessible(TypeElement type, PackageElement from) {
+        final boolean samePackage = processingEnv.getElementUtils().getPackageOf(type).equals(from);
+
+        Element current = type;
+        while (current instanceof TypeElement) {
+            final Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)
+                    || (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    private boolean isAssignable(TypeMirror type, Class<?> clazz) {
+        final TypeElement target = processingEnv.getElementUtils().getTypeElement(clazz.getCanonicalName());
+        return target != null && processingEnv.getTypeUtils().isAssignable(erasure(type), erasure(target.asType()));
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+}
@@ -31,4 +31,10 @@ public abstract class AbstractCancellableEvent extends AbstractEvent implements
         this.cancelled = cancelled;
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        cancelled = false;
+    }
+
 }
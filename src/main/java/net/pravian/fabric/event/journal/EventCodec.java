@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import net.pravian.fabric.event.Event;
+
+public interface EventCodec {
+
+    // Writes the event at the buffer's position, a BufferOverflowException moves it to the next segment.
+    // Returns false to leave the event out of the journal.
+    public boolean encode(Event event, ByteBuffer buffer) throws IOException;
+
+    // The buffer holds exactly the bytes written by encode
+    public Event decode(ByteBuffer buffer) throws IOException;
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.pravian.fabric.Check;
+import net.pravian.fabric.event.Event;
+
+// Append-only journal of events, split over fixed size memory-mapped segment files. Each segment starts
+// with a magic number and version, followed by records of { int length, long timestamp, payload }.
+// A zero length marks the end of the written part of a segment.
+public class EventJournal implements Closeable {
+
+    public static final String EXTENSION = ".journal";
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    static final int MAGIC = 0xFAB41C0A;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER = 8;
+    static final int RECORD_HEADER = 12;
+    //
+    private final Path directory;
+    private final EventCodec codec;
+    private final int segmentSize;
+    private final long originWallNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private final long originNanos = System.nanoTime();
+    private long segmentIndex; // Guarded by this
+    private MappedByteBuffer segment; // Guarded by this, null once closed
+    private long records = 0; // Guarded by this
+
+    public EventJournal(Path directory, EventCodec codec) throws IOException {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    // Appends new segments after those already in the directory
+    public EventJournal(Path directory, EventCodec codec, int segmentSize) throws IOException {
+        Check.is(segmentSize > SEGMENT_HEADER + RECORD_HEADER, "Segment size too small");
+        this.directory = Check.notNull(directory);
+        this.codec = Check.notNull(codec);
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+        final List<Path> existing = segments(directory);
+        this.segmentIndex = existing.isEmpty() ? 0 : index(existing.get(existing.size() - 1)) + 1;
+        this.segment = map(segmentIndex);
+    }
+
+    // Returns false if the codec skipped the event
+    public synchronized boolean append(Event event) throws IOException {
+        if (segment == null) {
+            throw new IOException("Journal is closed");
+        }
+
+        if (segment.remaining() < RECORD_HEADER) {
+            roll();
+        }
+
+        final long timestamp = originWallNanos + (System.nanoTime() - originNanos);
+        final int start = segment.position();
+
+        final ByteBuffer payload = segment.duplicate();
+        payload.position(start + RECORD_HEADER);
+
+        final boolean encoded;
+        try {
+            encoded = codec.encode(event, payload);
+        } catch (BufferOverflowException ex) {
+            clear(start, start + RECORD_HEADER);
+            if (start == SEGMENT_HEADER) {
+                throw new IOException("Event doesn't fit in an empty segment of " + segmentSize + " bytes: " + event.getName());
+            }
+
+            roll();
+            return append(event);
+        }
+
+        if (!encoded) {
+            clear(start, Math.max(start + RECORD_HEADER, payload.position()));
+            return false;
+        }
+
+        segment.putLong(start + 4, timestamp);
+        segment.putInt(start, payload.position() - start); // Written last, marks the record as complete
+        segment.position(payload.position());
+        records++;
+        return true;
+    }
+
+    public synchronized void flush() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        segment = null; // Unmapped once collected
+    }
+
+    private void roll() throws IOException {
+        segment.force();
+        segment = map(++segmentIndex);
+    }
+
+    // Zeroes bytes a failed or skipped encode left behind, so they don't read as a record
+    private void clear(int start, int end) {
+        for (int i = start; i < Math.min(end, segment.capacity()); i++) {
+            segment.put(i, (byte) 0);
+        }
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        final Path file = directory.resolve(String.format("%016x", index) + EXTENSION);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            return buffer;
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        final List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+
+        Collections.sort(segments); // Fixed width hex names sort by index
+        return segments;
+    }
+
+    private static long index(Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - EXTENSION.length()), 16);
+    }
+
+}
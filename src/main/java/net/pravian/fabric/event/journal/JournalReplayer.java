@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+import net.pravian.fabric.Check;
+import net.pravian.fabric.event.Event;
+import net.pravian.fabric.event.EventManager;
+
+// Reads an EventJournal's segments back and calls the events on an EventManager
+public class JournalReplayer {
+
+    private final Path directory;
+    private final EventCodec codec;
+
+    public JournalReplayer(Path directory, EventCodec codec) {
+        this.directory = Check.notNull(directory);
+        this.codec = Check.notNull(codec);
+    }
+
+    // Returns the number of events called
+    public long replay(EventManager manager, Speed speed) throws IOException {
+        Check.notNull(manager, "Manager may not be null");
+        Check.notNull(speed, "Speed may not be null");
+
+        long replayed = 0;
+        long firstTimestamp = 0;
+        final long startNanos = System.nanoTime();
+
+        for (Path path : EventJournal.segments(directory)) {
+            final MappedByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            if (segment.remaining() < EventJournal.SEGMENT_HEADER
+                    || segment.getInt() != EventJournal.MAGIC
+                    || segment.getInt() != EventJournal.VERSION) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+
+            while (segment.remaining() >= EventJournal.RECORD_HEADER) {
+                final int start = segment.position();
+                final int length = segment.getInt(start);
+                if (length == 0) {
+                    break; // End of the written part
+                }
+                if (length < EventJournal.RECORD_HEADER || length > segment.limit() - start) {
+                    throw new IOException("Corrupt record at " + start + " in " + path);
+                }
+
+                final long timestamp = segment.getLong(start + 4);
+                final ByteBuffer payload = segment.duplicate();
+                payload.position(start + EventJournal.RECORD_HEADER);
+                payload.limit(start + length);
+                final Event event = codec.decode(payload.slice());
+                segment.position(start + length);
+
+                if (replayed == 0) {
+                    firstTimestamp = timestamp;
+                } else if (speed == Speed.RECORDED) {
+                    final long due = startNanos + (timestamp - firstTimestamp);
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                manager.call(event);
+                replayed++;
+            }
+        }
+
+        return replayed;
+    }
+
+    public static enum Speed {
+
+        // Keeps the intervals between events as they were recorded
+        RECORDED,
+        // Calls events back to back
+        MAXIMUM;
+    }
+
+}
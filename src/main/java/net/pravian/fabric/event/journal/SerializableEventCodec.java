@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import net.pravian.fabric.Check;
+import net.pravian.fabric.event.Event;
+
+// Journals events that implement Serializable through Java serialization, others are skipped.
+// Only read journals from trusted files: decoding is limited to events and the allowed packages,
+// but any of those classes may still run code while being deserialized.
+public class SerializableEventCodec implements EventCodec {
+
+    private static final String[] DEFAULT_PACKAGES = {"java.lang.", "java.util.", "java.time.", "java.math."};
+    //
+    private final String[] packages;
+
+    public SerializableEventCodec(String... packages) {
+        Check.notNull(packages);
+        this.packages = new String[DEFAULT_PACKAGES.length + packages.length];
+        System.arraycopy(DEFAULT_PACKAGES, 0, this.packages, 0, DEFAULT_PACKAGES.length);
+        for (int i = 0; i < packages.length; i++) {
+            Check.notNull(packages[i]);
+            this.packages[DEFAULT_PACKAGES.length + i] = packages[i].endsWith(".") ? packages[i] : packages[i] + ".";
+        }
+    }
+
+    @Override
+    public boolean encode(Event event, ByteBuffer buffer) throws IOException {
+        if (!(event instanceof Serializable)) {
+            return false;
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+
+        buffer.put(bytes.toByteArray());
+        return true;
+    }
+
+    @Override
+    public Event decode(ByteBuffer buffer) throws IOException {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        try (ObjectInputStream in = new FilteredInputStream(new ByteArrayInputStream(bytes))) {
+            return (Event) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException ex) {
+            throw new IOException("Could not decode event", ex);
+        }
+    }
+
+    private boolean isAllowed(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        if (type.isPrimitive() || Event.class.isAssignableFrom(type)) {
+            return true;
+        }
+
+        for (String prefix : packages) {
+            if (type.getName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Classes are loaded without being initialized, so rejecting them here runs none of their code
+    private class FilteredInputStream extends ObjectInputStream {
+
+        private FilteredInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final Class<?> type = super.resolveClass(desc);
+            if (!isAllowed(type)) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in a journal");
+            }
+            return type;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.jfr;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ConfigRecord.NAME)
+@Label("Config File I/O")
+@Category({"Fabric", "Config"})
+@Description("A configuration loaded from or saved to a file")
+@Enabled(false)
+public final class ConfigRecord extends Event {
+
+    public static final String NAME = "net.pravian.fabric.ConfigIO";
+    //
+    @Label("Operation")
+    private String operation;
+    @Label("File")
+    private String file;
+    @Label("Size")
+    @DataAmount
+    private long size;
+    @Label("Success")
+    private boolean success;
+
+    public void commit(String operation, File file, boolean success) {
+        if (!shouldCommit()) {
+            return;
+        }
+
+        this.operation = operation;
+        this.file = file.getPath();
+        this.size = file.length();
+        this.success = success;
+        commit();
+    }
+
+}
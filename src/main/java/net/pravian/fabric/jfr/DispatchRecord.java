@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(DispatchRecord.NAME)
+@Label("Event Dispatch")
+@Category({"Fabric", "Events"})
+@Description("An event called on an EventManager")
+@Enabled(false)
+@StackTrace(false)
+public final class DispatchRecord extends Event {
+
+    public static final String NAME = "net.pravian.fabric.Dispatch";
+    //
+    @Label("Event Class")
+    private Class<?> eventClass;
+    @Label("Executors")
+    @Description("Executors run or handed off, cancelled events skip executors that ignore cancellation")
+    private int executors;
+    @Label("Cancelled")
+    private boolean cancelled;
+
+    public void commit(Class<?> eventClass, int executors, boolean cancelled) {
+        if (!shouldCommit()) {
+            return;
+        }
+
+        this.eventClass = eventClass;
+        this.executors = executors;
+        this.cancelled = cancelled;
+        commit();
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+// Executors run by compiled dispatchers are not recorded
+@Name(ExecutorRecord.NAME)
+@Label("Slow Event Executor")
+@Category({"Fabric", "Events"})
+@Description("An executor that took longer than the threshold to handle an event")
+@Enabled(false)
+@Threshold("20 ms")
+public final class ExecutorRecord extends Event {
+
+    public static final String NAME = "net.pravian.fabric.SlowExecutor";
+    //
+    @Label("Executor")
+    private String executor;
+    @Label("Event Class")
+    private Class<?> eventClass;
+
+    public void commit(Object executor, Class<?> eventClass) {
+        if (!shouldCommit()) {
+            return;
+        }
+
+        this.executor = String.valueOf(executor);
+        this.eventClass = eventClass;
+        commit();
+    }
+
+}
@@ -15,16 +15,39 @@
  */
 package net.pravian.fabric.event;
 
+import net.pravian.fabric.event.annotation.EventPriority;
 import net.pravian.fabric.event.annotation.Listeners;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.pravian.fabric.event.Events.DummyCancellableEvent;
 import net.pravian.fabric.event.Events.DummyEvent;
+import net.pravian.fabric.event.Events.DummyInterface;
+import net.pravian.fabric.event.Events.DummyKeyedEvent;
+import net.pravian.fabric.event.Events.MultiInterfaceEvent;
 import net.pravian.fabric.event.Events.DummySubEvent;
 import net.pravian.fabric.event.Events.OtherDummyEvent;
+import net.pravian.fabric.event.Events.OtherDummyInterface;
 import net.pravian.fabric.event.Events.PriorityDummyEvent;
+import net.pravian.fabric.event.Events.ValueDummyEvent;
+import net.pravian.fabric.event.Executors.CancellingEventExecutor;
+import net.pravian.fabric.event.Executors.CountingEventExecutor;
 import net.pravian.fabric.event.Executors.DummyEventExecutor;
 import net.pravian.fabric.event.Executors.ExceptionDummyEventExecutor;
+import net.pravian.fabric.event.Executors.ObservingEventExecutor;
 import net.pravian.fabric.event.Executors.PriorityDummyEventExecutor;
+import net.pravian.fabric.event.Executors.RecordingEventExecutor;
 import net.pravian.fabric.event.annotation.Listeners.DummyListener;
 import net.pravian.fabric.exception.ExceptionHandler;
 import org.junit.Test;
@@ -131,4 +154,737 @@ public class EventManagerTest {
         assertWithMessage("Processed all events").that(event.getCurrent()).isEqualTo(4);
     }
 
+    @Test
+    public void hierarchy() {
+        final List<String> trace = new ArrayList<>();
+        final CountingEventExecutor exe1 = new CountingEventExecutor(DummyInterface.class, 3, trace);
+        final CountingEventExecutor exe2 = new CountingEventExecutor(OtherDummyInterface.class, 1, trace);
+        final CountingEventExecutor exe3 = new CountingEventExecutor(DummyEvent.class, 2, trace);
+        final CountingEventExecutor exe4 = new CountingEventExecutor(Event.class, 4, trace);
+
+        EventManager manager = new EventManager();
+        manager.register(exe1);
+        manager.register(exe2);
+        manager.register(exe3);
+        manager.register(exe4);
+
+        manager.call(new MultiInterfaceEvent());
+
+        assertWithMessage("All interfaces processed").that(trace)
+                .containsExactly("OtherDummyInterface:1", "DummyEvent:2", "DummyInterface:3", "Event:4").inOrder();
+        assertThat(manager.getExecutors(MultiInterfaceEvent.class).length).isEqualTo(4);
+
+        manager.call(new DummyEvent());
+        assertWithMessage("Unrelated interfaces skipped").that(exe1.getCount()).isEqualTo(1);
+        assertWithMessage("Superclass processed").that(exe3.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void planInvalidation() {
+        final CountingEventExecutor exe1 = new CountingEventExecutor(DummyEvent.class, 1);
+        final CountingEventExecutor exe2 = new CountingEventExecutor(DummyInterface.class, 1);
+
+        EventManager manager = new EventManager();
+        manager.register(exe1);
+        manager.call(new MultiInterfaceEvent());
+
+        manager.register(exe2);
+        manager.call(new MultiInterfaceEvent());
+
+        assertThat(exe1.getCount()).isEqualTo(2);
+        assertWithMessage("Late registration processed").that(exe2.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentRegistration() throws InterruptedException {
+        final EventManager manager = new EventManager();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final int registrations = 500;
+
+        final Thread registrar = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                    for (int i = 0; i < registrations; i++) {
+                        manager.register(new CountingEventExecutor(i % 2 == 0 ? DummyEvent.class : DummyInterface.class, i % 5));
+                    }
+                } catch (Throwable ex) {
+                    failure.set(ex);
+                }
+            }
+        });
+        registrar.start();
+
+        final Thread[] callers = new Thread[4];
+        for (int i = 0; i < callers.length; i++) {
+            callers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 2000; i++) {
+                            manager.call(new MultiInterfaceEvent());
+                            calls.incrementAndGet();
+                        }
+                    } catch (Throwable ex) {
+                        failure.set(ex);
+                    }
+                }
+            });
+            callers[i].start();
+        }
+
+        start.countDown();
+        registrar.join();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        assertWithMessage("Concurrent failure").that(failure.get()).isNull();
+        assertThat(calls.get()).isEqualTo(callers.length * 2000);
+        assertWithMessage("All registrations published").that(manager.getExecutors(MultiInterfaceEvent.class).length).isEqualTo(registrations);
+    }
+
+    @Test
+    public void callAsync() throws Exception {
+        final CountingEventExecutor executor = new CountingEventExecutor(DummyEvent.class, 1);
+        final AtomicInteger scheduled = new AtomicInteger();
+
+        EventManager manager = new EventManager();
+        manager.register(executor);
+        manager.setAsyncExecutor(command -> {
+            scheduled.incrementAndGet();
+            command.run();
+        });
+
+        DummyEvent event = new DummyEvent();
+        CompletableFuture<DummyEvent> future = manager.callAsync(event);
+
+        assertWithMessage("Completed").that(future.isDone()).isTrue();
+        assertThat(future.get()).isEqualTo(event);
+        assertThat(executor.getCount()).isEqualTo(1);
+        assertWithMessage("Dispatched on async executor").that(scheduled.get()).isEqualTo(1);
+
+        manager.register(new ExceptionDummyEventExecutor(2));
+        try {
+            manager.callAsync(event).get();
+            assertWithMessage("No exception thrown").fail();
+        } catch (ExecutionException ex) {
+            assertWithMessage("Exception not wrapped").that(ex.getCause().getCause()).isInstanceOf(EventException.class);
+        }
+    }
+
+    @Test
+    public void callAll() {
+        final List<String> trace = new ArrayList<>();
+        final CountingEventExecutor exe1 = new CountingEventExecutor(DummyEvent.class, 1, trace);
+        final CountingEventExecutor exe2 = new CountingEventExecutor(Event.class, 2, trace);
+
+        EventManager manager = new EventManager();
+        manager.register(exe2);
+        manager.register(exe1);
+
+        manager.callAll(Arrays.asList(new DummyEvent(), new OtherDummyEvent(), new DummyEvent(), new DummySubEvent()));
+
+        assertThat(exe1.getCount()).isEqualTo(3);
+        assertThat(exe2.getCount()).isEqualTo(4);
+        assertWithMessage("Executors run over the whole group").that(trace.subList(0, 4))
+                .containsExactly("DummyEvent:1", "DummyEvent:1", "Event:2", "Event:2").inOrder();
+
+        manager.callAll(DummyEvent.class, Arrays.asList(new DummyEvent(), new DummyEvent()));
+        assertThat(exe1.getCount()).isEqualTo(5);
+
+        try {
+            manager.callAll(DummyEvent.class, Arrays.asList(new DummyEvent(), new DummySubEvent()));
+            assertWithMessage("Heterogeneous batch accepted").fail();
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void callAllCancellable() {
+        final CancellingEventExecutor canceller = new CancellingEventExecutor(DummyCancellableEvent.class, 1);
+        final CountingEventExecutor counter = new CountingEventExecutor(DummyCancellableEvent.class, 2);
+
+        EventManager manager = new EventManager();
+        manager.register(canceller);
+        manager.register(counter);
+
+        DummyCancellableEvent cancelled = new DummyCancellableEvent();
+        manager.callAll(DummyCancellableEvent.class, Arrays.asList(cancelled, new DummyCancellableEvent()));
+
+        assertThat(canceller.getCount()).isEqualTo(2);
+        assertWithMessage("Cancelled events skipped").that(counter.getCount()).isEqualTo(0);
+        assertThat(cancelled.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void subscription() {
+        final CountingEventExecutor exe1 = new CountingEventExecutor(DummyEvent.class, 1);
+        final CountingEventExecutor exe2 = new CountingEventExecutor(DummyEvent.class, 2);
+
+        EventManager manager = new EventManager();
+        Subscription sub1 = manager.register(exe1);
+        Subscription sub2 = manager.register(exe2);
+
+        manager.call(new DummyEvent());
+        sub1.close();
+        manager.call(new DummyEvent());
+
+        assertThat(sub1.isActive()).isFalse();
+        assertThat(sub2.isActive()).isTrue();
+        assertThat(exe1.getCount()).isEqualTo(1);
+        assertThat(exe2.getCount()).isEqualTo(2);
+
+        sub2.close();
+        assertWithMessage("Empty classes removed").that(manager.getBakedExecutors()).isEmpty();
+        assertWithMessage("Executor already removed").that(manager.unregister(exe2)).isFalse();
+    }
+
+    @Test
+    public void keyedRouting() {
+        final List<String> trace = new ArrayList<>();
+        final CountingEventExecutor keyedA = new CountingEventExecutor(DummyKeyedEvent.class, 1, trace);
+        final CountingEventExecutor keyedB = new CountingEventExecutor(DummyKeyedEvent.class, 3, trace);
+        final CountingEventExecutor unkeyed = new CountingEventExecutor(DummyKeyedEvent.class, 2, trace);
+
+        EventManager manager = new EventManager();
+        Subscription subA = manager.register(keyedA, "a");
+        manager.register(keyedB, "b");
+        manager.register(unkeyed);
+
+        manager.call(new DummyKeyedEvent("a"));
+        assertWithMessage("Key 'a' runs its own executor and unkeyed ones in priority order")
+                .that(trace).containsExactly("DummyKeyedEvent:1", "DummyKeyedEvent:2").inOrder();
+
+        manager.call(new DummyKeyedEvent("c"));
+        manager.call(new DummyKeyedEvent(null));
+        manager.callAll(Arrays.asList(new DummyKeyedEvent("b"), new DummyKeyedEvent("a")));
+
+        assertThat(keyedA.getCount()).isEqualTo(2);
+        assertThat(keyedB.getCount()).isEqualTo(1);
+        assertThat(unkeyed.getCount()).isEqualTo(5);
+        assertWithMessage("Keyed executors only receive their key").that(manager.getExecutors(DummyKeyedEvent.class)).asList().containsExactly(unkeyed);
+
+        subA.close();
+        manager.call(new DummyKeyedEvent("a"));
+        assertThat(keyedA.getCount()).isEqualTo(2);
+        assertThat(unkeyed.getCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void keyedRoutingManyKeys() {
+        final List<CountingEventExecutor> keyed = new ArrayList<>();
+        final CountingEventExecutor unkeyed = new CountingEventExecutor(DummyKeyedEvent.class, 2);
+        EventManager manager = new EventManager();
+        manager.register(unkeyed);
+        for (int i = 0; i < 1000; i++) {
+            final CountingEventExecutor exe = new CountingEventExecutor(DummyKeyedEvent.class, 1);
+            keyed.add(exe);
+            manager.register(exe, i);
+        }
+
+        manager.call(new DummyKeyedEvent(500));
+        manager.call(new DummyKeyedEvent(500));
+        manager.call(new DummyKeyedEvent(7));
+
+        assertThat(keyed.get(500).getCount()).isEqualTo(2);
+        assertThat(keyed.get(7).getCount()).isEqualTo(1);
+        assertThat(keyed.get(8).getCount()).isEqualTo(0);
+        assertThat(unkeyed.getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void blockingJoinedBeforeCancelledSkip() {
+        final List<String> trace = Collections.synchronizedList(new ArrayList<String>());
+        final CountingEventExecutor slowObserver = new CountingEventExecutor(DummyCancellableEvent.class, 1, trace) {
+            @Override
+            public void execute(Event event) throws EventException {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.execute(event);
+            }
+
+            @Override
+            public boolean isIgnoringCancelled() {
+                return false;
+            }
+
+            @Override
+            public boolean isBlocking() {
+                return true;
+            }
+        };
+        final CountingEventExecutor skipped = new CountingEventExecutor(DummyCancellableEvent.class, 2, trace) {
+            @Override
+            public boolean isBlocking() {
+                return true;
+            }
+        };
+        final CountingEventExecutor observer = new CountingEventExecutor(DummyCancellableEvent.class, 3, trace) {
+            @Override
+            public boolean isIgnoringCancelled() {
+                return false;
+            }
+        };
+
+        EventManager manager = new EventManager();
+        manager.register(Arrays.<EventExecutor>asList(slowObserver, skipped, observer));
+
+        final DummyCancellableEvent event = new DummyCancellableEvent();
+        event.setCancelled(true);
+        manager.call(event);
+
+        assertWithMessage("Blocking executor joined before the later observer")
+                .that(trace).containsExactly("DummyCancellableEvent:1", "DummyCancellableEvent:3").inOrder();
+    }
+
+    @Test
+    public void observerLane() {
+        final List<Runnable> drains = new ArrayList<>();
+        final ObserverLane lane = new ObserverLane(drains::add, 2, ObserverLane.OverflowPolicy.DROP_OLDEST);
+        final CountingEventExecutor monitor = new CountingEventExecutor(DummyEvent.class, EventPriority.MONITOR_OUT.getPriority());
+        final CountingEventExecutor normal = new CountingEventExecutor(DummyEvent.class, EventPriority.NORMAL.getPriority());
+
+        EventManager manager = new EventManager();
+        manager.register(monitor);
+        manager.register(normal);
+        manager.setObserverLane(lane);
+
+        manager.call(new DummyEvent());
+        manager.call(new DummyEvent());
+        manager.call(new DummyEvent());
+
+        assertThat(normal.getCount()).isEqualTo(3);
+        assertWithMessage("Monitor executor ran inline").that(monitor.getCount()).isEqualTo(0);
+        assertThat(lane.getPending()).isEqualTo(2);
+        assertThat(lane.getDropped()).isEqualTo(1);
+        assertWithMessage("Drain scheduled once").that(drains).hasSize(1);
+
+        drains.get(0).run();
+        assertThat(monitor.getCount()).isEqualTo(2);
+        assertThat(lane.getPending()).isEqualTo(0);
+
+        manager.setObserverLane(null);
+        manager.call(new DummyEvent());
+        assertThat(monitor.getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void observerLaneException() throws InterruptedException {
+        final List<Throwable> reported = new ArrayList<>();
+        final ObserverLane lane = new ObserverLane(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler((t, ex) -> reported.add(ex));
+            thread.start();
+        }, 4, ObserverLane.OverflowPolicy.BLOCK);
+        final CountDownLatch published = new CountDownLatch(1);
+        final AbstractEventExecutor gate = new CountingEventExecutor(DummyEvent.class, EventPriority.MONITOR_IN.getPriority()) {
+            @Override
+            public void execute(Event event) throws EventException {
+                try {
+                    published.await(); // Keeps the drain running until all invocations are queued
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new EventException("Observer failed");
+            }
+        };
+        final CountingEventExecutor monitor = new CountingEventExecutor(DummyEvent.class, EventPriority.MONITOR_OUT.getPriority());
+
+        EventManager manager = new EventManager();
+        manager.setObserverLane(lane);
+        manager.register(Arrays.asList(gate, monitor));
+
+        manager.call(new DummyEvent());
+        manager.call(new DummyEvent());
+        published.countDown();
+
+        for (int i = 0; i < 500 && monitor.getCount() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertWithMessage("Later observers still ran").that(monitor.getCount()).isEqualTo(2);
+        assertThat(lane.getPending()).isEqualTo(0);
+        assertThat(reported).isNotEmpty();
+    }
+
+    @Test
+    public void observerLaneSnapshots() {
+        final List<Runnable> drains = new ArrayList<>();
+        final AtomicInteger snapshots = new AtomicInteger();
+        final ObserverLane lane = new ObserverLane(drains::add, 16, ObserverLane.OverflowPolicy.BLOCK,
+                event -> new ValueDummyEvent(snapshots.incrementAndGet()));
+        final RecordingEventExecutor monitorIn = new RecordingEventExecutor(ValueDummyEvent.class, EventPriority.MONITOR_IN.getPriority());
+        final RecordingEventExecutor otherMonitorIn = new RecordingEventExecutor(ValueDummyEvent.class, EventPriority.MONITOR_IN.getPriority());
+        final CountingEventExecutor normal = new CountingEventExecutor(ValueDummyEvent.class, EventPriority.NORMAL.getPriority());
+        final RecordingEventExecutor monitorOut = new RecordingEventExecutor(ValueDummyEvent.class, EventPriority.MONITOR_OUT.getPriority());
+
+        EventManager manager = new EventManager();
+        manager.setObserverLane(lane);
+        manager.register(Arrays.asList(monitorIn, otherMonitorIn, normal, monitorOut));
+
+        manager.call(new ValueDummyEvent(0));
+        drains.get(0).run();
+        assertWithMessage("Consecutive observers share a snapshot").that(values(monitorIn.getEvents())).containsExactly(1);
+        assertThat(values(otherMonitorIn.getEvents())).containsExactly(1);
+        assertWithMessage("Retaken after the normal executor").that(values(monitorOut.getEvents())).containsExactly(2);
+
+        manager.callAll(ValueDummyEvent.class, Arrays.asList(new ValueDummyEvent(0), new ValueDummyEvent(0)));
+        drains.get(1).run();
+        assertWithMessage("Batches snapshot the same way").that(values(otherMonitorIn.getEvents())).containsExactly(1, 3, 4).inOrder();
+        assertThat(values(monitorOut.getEvents())).containsExactly(2, 5, 6).inOrder();
+    }
+
+    @Test
+    public void observerLaneCallerRuns() {
+        final List<Runnable> drains = new ArrayList<>();
+        final ObserverLane lane = new ObserverLane(drains::add, 1, ObserverLane.OverflowPolicy.CALLER_RUNS);
+        final CountingEventExecutor monitor = new CountingEventExecutor(DummyEvent.class, EventPriority.MONITOR_IN.getPriority());
+
+        EventManager manager = new EventManager();
+        manager.setObserverLane(lane);
+        manager.register(monitor);
+
+        manager.call(new DummyEvent());
+        manager.call(new DummyEvent());
+
+        assertWithMessage("Overflowing invocation ran on the caller").that(monitor.getCount()).isEqualTo(1);
+        assertThat(lane.getDropped()).isEqualTo(0);
+        drains.get(0).run();
+        assertThat(monitor.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void coalesced() {
+        final RecordingEventExecutor exe = new RecordingEventExecutor(ValueDummyEvent.class);
+        EventManager manager = new EventManager();
+        manager.register(exe);
+
+        manager.publishCoalesced(new ValueDummyEvent(1), "a", 0, TimeUnit.MILLISECONDS);
+        manager.publishCoalesced(new ValueDummyEvent(2), "a", 0, TimeUnit.MILLISECONDS);
+        manager.publishCoalesced(new ValueDummyEvent(3), "b", 0, TimeUnit.MILLISECONDS);
+        manager.publishCoalesced(new ValueDummyEvent(4), "a", 0, TimeUnit.MILLISECONDS);
+
+        assertWithMessage("Nothing called before the flush").that(exe.getEvents()).isEmpty();
+        assertThat(manager.getPendingCoalesced()).isEqualTo(2);
+
+        manager.flushCoalesced();
+        assertThat(values(exe.getEvents())).containsExactly(4, 3);
+        assertThat(manager.getPendingCoalesced()).isEqualTo(0);
+
+        manager.publishCoalesced(new ValueDummyEvent(1), "a", 0, TimeUnit.MILLISECONDS,
+                (previous, latest) -> new ValueDummyEvent(previous.getValue() + latest.getValue()));
+        manager.publishCoalesced(new ValueDummyEvent(5), "a", 0, TimeUnit.MILLISECONDS,
+                (previous, latest) -> new ValueDummyEvent(previous.getValue() + latest.getValue()));
+        manager.flushCoalesced("a");
+        assertWithMessage("Merged").that(values(exe.getEvents())).containsExactly(4, 3, 6);
+    }
+
+    @Test
+    public void coalescedWindow() throws InterruptedException {
+        final ScheduledExecutorService scheduler = java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
+        final RecordingEventExecutor exe = new RecordingEventExecutor(ValueDummyEvent.class);
+        EventManager manager = new EventManager();
+        manager.setCoalescingScheduler(scheduler);
+        manager.register(exe);
+
+        for (int i = 1; i <= 100; i++) {
+            manager.publishCoalesced(new ValueDummyEvent(i), "a", 1, TimeUnit.SECONDS);
+        }
+
+        scheduler.shutdown(); // Delayed flushes still run
+        assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertWithMessage("One call with the latest state").that(values(exe.getEvents())).containsExactly(100);
+    }
+
+    @Test
+    public void coalescedWindowException() throws InterruptedException {
+        final List<Throwable> reported = new CopyOnWriteArrayList<>();
+        final ScheduledExecutorService scheduler = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler((t, ex) -> reported.add(ex));
+            return thread;
+        });
+        EventManager manager = new EventManager();
+        manager.setCoalescingScheduler(scheduler);
+        manager.register(new ExceptionDummyEventExecutor(1));
+
+        manager.publishCoalesced(new DummyEvent(), "a", 1, TimeUnit.MILLISECONDS);
+
+        scheduler.shutdown();
+        assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertWithMessage("Flush failure reported").that(reported).hasSize(1);
+    }
+
+    private static List<Integer> values(List<Event> events) {
+        final List<Integer> values = new ArrayList<>();
+        for (Event event : events) {
+            values.add(((ValueDummyEvent) event).getValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void lazyCall() {
+        final AtomicInteger created = new AtomicInteger();
+        EventManager manager = new EventManager();
+
+        assertThat(manager.hasListeners(DummySubEvent.class)).isFalse();
+        assertWithMessage("Not constructed without listeners").that(manager.call(DummySubEvent.class, () -> {
+            created.incrementAndGet();
+            return new DummySubEvent();
+        })).isNull();
+        assertThat(created.get()).isEqualTo(0);
+
+        final CountingEventExecutor exe = new CountingEventExecutor(DummyEvent.class, 1);
+        Subscription sub = manager.register(exe);
+        assertWithMessage("Superclass listener").that(manager.hasListeners(DummySubEvent.class)).isTrue();
+        assertThat(manager.hasListeners(OtherDummyEvent.class)).isFalse();
+
+        final DummySubEvent event = manager.call(DummySubEvent.class, () -> {
+            created.incrementAndGet();
+            return new DummySubEvent();
+        });
+        assertThat(event).isNotNull();
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(exe.getCount()).isEqualTo(1);
+
+        sub.close();
+        assertThat(manager.hasListeners(DummySubEvent.class)).isFalse();
+
+        manager.register(new CountingEventExecutor(DummyKeyedEvent.class, 1), "a");
+        assertWithMessage("Keyed listener").that(manager.hasListeners(DummyKeyedEvent.class)).isTrue();
+    }
+
+    @Test
+    public void sticky() {
+        EventManager manager = new EventManager();
+        manager.setSticky(DummyEvent.class, true);
+        assertThat(manager.isSticky(DummyEvent.class)).isTrue();
+        assertThat(manager.hasListeners(DummySubEvent.class)).isFalse();
+        assertWithMessage("Sticky classes are built without listeners")
+                .that(manager.call(DummySubEvent.class, DummySubEvent::new)).isNotNull();
+
+        final DummyEvent first = new DummyEvent();
+        final DummySubEvent latest = new DummySubEvent();
+        manager.call(first);
+        manager.call(latest);
+        assertWithMessage("Subclass events replace the sticky event").that(manager.getStickyEvent(DummyEvent.class)).isSameAs(latest);
+
+        final RecordingEventExecutor late = new RecordingEventExecutor(DummyEvent.class);
+        final RecordingEventExecutor other = new RecordingEventExecutor(OtherDummyEvent.class);
+        manager.register(Arrays.<EventExecutor>asList(late, other));
+        assertWithMessage("Latest event delivered on registration").that(late.getEvents()).containsExactly(latest);
+        assertThat(other.getEvents()).isEmpty();
+
+        manager.call(new DummyEvent());
+        assertThat(late.getEvents()).hasSize(2);
+
+        manager.removeStickyEvent(DummyEvent.class);
+        assertThat(manager.getStickyEvent(DummyEvent.class)).isNull();
+        final RecordingEventExecutor cleared = new RecordingEventExecutor(DummyEvent.class);
+        manager.register(cleared);
+        assertThat(cleared.getEvents()).isEmpty();
+
+        manager.setSticky(DummyEvent.class, false);
+        manager.call(new DummyEvent());
+        assertThat(manager.getStickyEvent(DummyEvent.class)).isNull();
+    }
+
+    @Test
+    public void stickyCancelled() {
+        EventManager manager = new EventManager();
+        manager.setSticky(DummyCancellableEvent.class, true);
+
+        final DummyCancellableEvent event = new DummyCancellableEvent();
+        event.setCancelled(true);
+        manager.call(event);
+
+        final CountingEventExecutor ignoring = new CountingEventExecutor(DummyCancellableEvent.class, 1);
+        final ObservingEventExecutor observing = new ObservingEventExecutor(DummyCancellableEvent.class, 1);
+        manager.register(ignoring);
+        manager.register(observing);
+
+        assertThat(ignoring.getCount()).isEqualTo(0);
+        assertWithMessage("Observers receive cancelled sticky events").that(observing.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void incrementalRebake() {
+        final CountingEventExecutor dummy = new CountingEventExecutor(DummyEvent.class, 1);
+        EventManager manager = new EventManager();
+        manager.register(dummy);
+
+        manager.call(new MultiInterfaceEvent());
+        manager.call(new OtherDummyEvent());
+        assertThat(dummy.getCount()).isEqualTo(1);
+
+        final CountingEventExecutor other = new CountingEventExecutor(OtherDummyEvent.class, 1);
+        manager.register(other);
+        manager.call(new MultiInterfaceEvent());
+        manager.call(new OtherDummyEvent());
+        assertWithMessage("Unaffected plan kept its executors").that(dummy.getCount()).isEqualTo(2);
+        assertThat(other.getCount()).isEqualTo(1);
+
+        final CountingEventExecutor iface = new CountingEventExecutor(OtherDummyInterface.class, 1);
+        final Subscription sub = manager.register(iface);
+        manager.call(new MultiInterfaceEvent());
+        assertWithMessage("Plans with the changed supertype rebuilt").that(iface.getCount()).isEqualTo(1);
+        assertThat(dummy.getCount()).isEqualTo(3);
+
+        sub.close();
+        manager.unregister(other);
+        manager.call(new MultiInterfaceEvent());
+        manager.call(new OtherDummyEvent());
+        assertThat(iface.getCount()).isEqualTo(1);
+        assertThat(other.getCount()).isEqualTo(1);
+        assertThat(dummy.getCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void bulkRegistration() {
+        final List<String> trace = new ArrayList<>();
+        final List<EventExecutor> executors = new ArrayList<>();
+        for (int priority : new int[]{3, 1, 2, 1, 0}) {
+            executors.add(new CountingEventExecutor(DummyEvent.class, priority, trace));
+        }
+
+        EventManager manager = new EventManager();
+        Subscription sub = manager.register(executors);
+
+        EventExecutor[] baked = manager.getBakedExecutors().get(DummyEvent.class);
+        assertThat(baked).asList().containsExactly(executors.get(4), executors.get(1), executors.get(3),
+                executors.get(2), executors.get(0)).inOrder();
+
+        manager.call(new DummyEvent());
+        assertThat(trace).containsExactly("DummyEvent:0", "DummyEvent:1", "DummyEvent:1", "DummyEvent:2", "DummyEvent:3").inOrder();
+
+        sub.close();
+        assertThat(manager.getExecutors(DummyEvent.class)).isEmpty();
+    }
+
+    @Test
+    public void compiled() {
+        final List<String> trace = new ArrayList<>();
+        final CountingEventExecutor exe1 = new CountingEventExecutor(DummyEvent.class, 2, trace);
+        final CountingEventExecutor exe2 = new CountingEventExecutor(Event.class, 1, trace);
+
+        EventManager manager = new EventManager();
+        manager.register(exe1);
+        manager.register(exe2);
+        manager.setCompiled(DummyEvent.class, true);
+
+        assertThat(manager.isCompiled(DummyEvent.class)).isTrue();
+        assertWithMessage("Subclasses compiled").that(manager.isCompiled(DummySubEvent.class)).isTrue();
+        assertThat(manager.isCompiled(OtherDummyEvent.class)).isFalse();
+
+        manager.call(new DummySubEvent());
+        assertThat(trace).containsExactly("Event:1", "DummyEvent:2").inOrder();
+
+        manager.register(new ExceptionDummyEventExecutor(3));
+        assertWithMessage("Still compiled after rebake").that(manager.isCompiled(DummyEvent.class)).isTrue();
+        try {
+            manager.call(new DummyEvent());
+            assertWithMessage("No exception thrown").fail();
+        } catch (Exception ex) {
+            assertWithMessage("Exception not wrapped").that(ex.getCause()).isInstanceOf(EventException.class);
+        }
+
+        manager.setCompiled(DummyEvent.class, false);
+        assertThat(manager.isCompiled(DummyEvent.class)).isFalse();
+    }
+
+    @Test
+    public void compiledCancellation() {
+        final CancellingEventExecutor canceller = new CancellingEventExecutor(DummyCancellableEvent.class, 1);
+        final CountingEventExecutor counter = new CountingEventExecutor(DummyCancellableEvent.class, 2);
+
+        EventManager manager = new EventManager();
+        manager.register(canceller);
+        manager.register(counter);
+        manager.setCompiled(DummyCancellableEvent.class, true);
+
+        manager.call(new DummyCancellableEvent());
+
+        assertThat(canceller.getCount()).isEqualTo(1);
+        assertWithMessage("Cancelled event skipped").that(counter.getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void cancellationObservers() {
+        final CancellingEventExecutor canceller = new CancellingEventExecutor(DummyCancellableEvent.class, 1);
+        final CountingEventExecutor counter1 = new CountingEventExecutor(DummyCancellableEvent.class, 2);
+        final ObservingEventExecutor observer = new ObservingEventExecutor(DummyCancellableEvent.class, 3);
+        final CountingEventExecutor counter2 = new CountingEventExecutor(DummyCancellableEvent.class, 4);
+
+        for (boolean compiled : new boolean[]{false, true}) {
+            EventManager manager = new EventManager();
+            manager.register(Arrays.<EventExecutor>asList(canceller, counter1, observer, counter2));
+            manager.setCompiled(DummyCancellableEvent.class, compiled);
+
+            manager.call(new DummyCancellableEvent());
+            manager.callAll(DummyCancellableEvent.class, Arrays.asList(new DummyCancellableEvent()));
+        }
+
+        assertThat(canceller.getCount()).isEqualTo(4);
+        assertWithMessage("Cancelled event skipped").that(counter1.getCount()).isEqualTo(0);
+        assertWithMessage("Cancelled event observed").that(observer.getCount()).isEqualTo(4);
+        assertWithMessage("Cancelled event skipped").that(counter2.getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void statistics() {
+        final CountingEventExecutor counter = new CountingEventExecutor(DummyEvent.class, 1);
+        final ExceptionDummyEventExecutor failing = new ExceptionDummyEventExecutor(2);
+        final EventExecutor slow = new CountingEventExecutor(DummyEvent.class, 3) {
+            @Override
+            public void execute(Event event) throws EventException {
+                super.execute(event);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    throw new EventException(ex);
+                }
+            }
+        };
+        final List<EventExecutor> reported = new ArrayList<>();
+
+        EventManager manager = new EventManager();
+        manager.register(Arrays.<EventExecutor>asList(counter, failing, slow));
+        manager.setExceptionHandler(ex -> {
+        });
+
+        manager.call(new DummyEvent());
+        assertWithMessage("Statistics disabled by default").that(manager.getStatistics()).isEmpty();
+
+        manager.setStatisticsEnabled(true);
+        manager.setSlowExecutorThreshold(25, TimeUnit.MILLISECONDS);
+        manager.setSlowExecutorHandler((executor, event, nanos) -> reported.add(executor));
+        manager.call(new DummyEvent());
+        manager.call(new DummyEvent());
+
+        ExecutorStatistics counterStats = manager.getStatistics().get(counter);
+        assertThat(counterStats.getInvocations()).isEqualTo(2);
+        assertThat(counterStats.getExceptions()).isEqualTo(0);
+        assertThat(manager.getStatistics().get(failing).getExceptions()).isEqualTo(2);
+
+        ExecutorStatistics slowStats = manager.getStatistics().get(slow);
+        assertThat(slowStats.getMaxNanos()).isAtLeast(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(slowStats.getTotalNanos()).isAtLeast(slowStats.getMaxNanos());
+        assertWithMessage("Slow executor reported").that(reported).containsExactly(slow, slow);
+
+        manager.resetStatistics();
+        assertThat(manager.getStatistics()).isEmpty();
+        manager.unregister(counter);
+        manager.call(new DummyEvent());
+        assertWithMessage("Unregistered executor dropped").that(manager.getStatistics()).doesNotContainKey(counter);
+        assertThat(manager.getStatistics().get(failing).getInvocations()).isEqualTo(1);
+    }
+
 }
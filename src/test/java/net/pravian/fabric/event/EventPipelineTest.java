@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.pravian.fabric.event.EventPipeline.BackPressure;
+import net.pravian.fabric.event.EventPipeline.WaitStrategy;
+import net.pravian.fabric.event.Events.DummyEvent;
+import net.pravian.fabric.event.Executors.CountingEventExecutor;
+import net.pravian.fabric.event.Executors.RecordingEventExecutor;
+import org.junit.Test;
+
+public class EventPipelineTest {
+
+    @Test
+    public void multiProducer() throws InterruptedException {
+        final CountingEventExecutor exe = new CountingEventExecutor(DummyEvent.class, 1);
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final EventManager manager = new EventManager();
+        manager.register(exe);
+        manager.register(new AbstractEventExecutor() {
+            @Override
+            public Class<?> getEventClass() {
+                return DummyEvent.class;
+            }
+
+            @Override
+            public int getPriority() {
+                return 2;
+            }
+
+            @Override
+            public void execute(Event event) throws EventException {
+                threads.add(Thread.currentThread());
+            }
+        });
+
+        final EventPipeline pipeline = new EventPipeline(manager, 64, 2, WaitStrategy.YIELD, BackPressure.BLOCK);
+        pipeline.start();
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Thread producer = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    assertThat(pipeline.publish(new DummyEvent())).isTrue();
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        pipeline.stop();
+
+        assertWithMessage("Every event called once").that(exe.getCount()).isEqualTo(4000);
+        assertThat(pipeline.getPending()).isEqualTo(0);
+        assertThat(pipeline.getDropped()).isEqualTo(0);
+        assertWithMessage("Called on consumer threads").that(threads).doesNotContain(Thread.currentThread());
+    }
+
+    @Test
+    public void dropNewest() throws InterruptedException {
+        final RecordingEventExecutor exe = new RecordingEventExecutor(DummyEvent.class);
+        final EventManager manager = new EventManager();
+        manager.register(exe);
+
+        final EventPipeline pipeline = new EventPipeline(manager, 2, 1, WaitStrategy.PARK, BackPressure.DROP_NEWEST);
+        final DummyEvent event1 = new DummyEvent();
+        final DummyEvent event2 = new DummyEvent();
+
+        assertThat(pipeline.publish(event1)).isTrue();
+        assertThat(pipeline.publish(event2)).isTrue();
+        assertThat(pipeline.publish(new DummyEvent())).isFalse();
+        assertThat(pipeline.getPending()).isEqualTo(2);
+
+        pipeline.start();
+        pipeline.stop();
+
+        assertThat(exe.getEvents()).containsExactly(event1, event2).inOrder();
+        assertThat(pipeline.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    public void dropOldest() throws InterruptedException {
+        final RecordingEventExecutor exe = new RecordingEventExecutor(DummyEvent.class);
+        final EventManager manager = new EventManager();
+        manager.register(exe);
+
+        final EventPipeline pipeline = new EventPipeline(manager, 2, 1, WaitStrategy.BUSY_SPIN, BackPressure.DROP_OLDEST);
+        final DummyEvent event2 = new DummyEvent();
+        final DummyEvent event3 = new DummyEvent();
+
+        pipeline.publish(new DummyEvent());
+        pipeline.publish(event2);
+        assertThat(pipeline.publish(event3)).isTrue();
+
+        pipeline.start();
+        pipeline.stop();
+
+        assertThat(exe.getEvents()).containsExactly(event2, event3).inOrder();
+        assertThat(pipeline.getDropped()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacity() {
+        new EventPipeline(new EventManager(), 3, 1, WaitStrategy.YIELD, BackPressure.BLOCK);
+    }
+
+    @Test
+    public void publishRacingStop() throws InterruptedException {
+        for (BackPressure backPressure : new BackPressure[]{BackPressure.BLOCK, BackPressure.DROP_OLDEST}) {
+            for (int round = 0; round < 20; round++) {
+                final CountingEventExecutor exe = new CountingEventExecutor(DummyEvent.class, 1);
+                final EventManager manager = new EventManager();
+                manager.register(exe);
+                final EventPipeline pipeline = new EventPipeline(manager, 8, 1, WaitStrategy.YIELD, backPressure);
+                pipeline.start();
+
+                final AtomicInteger accepted = new AtomicInteger();
+                final List<Thread> producers = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    final Thread producer = new Thread(() -> {
+                        try {
+                            while (true) {
+                                if (pipeline.publish(new DummyEvent())) {
+                                    accepted.incrementAndGet();
+                                }
+                            }
+                        } catch (IllegalStateException ex) {
+                            // Stopped
+                        }
+                    });
+                    producers.add(producer);
+                    producer.start();
+                }
+
+                Thread.sleep(2);
+                pipeline.stop();
+                for (Thread producer : producers) {
+                    producer.join();
+                }
+
+                // Dropped oldest events were accepted first, blocked publishers that gave up weren't
+                final long expected = backPressure == BackPressure.BLOCK ? accepted.get() : accepted.get() - pipeline.getDropped();
+                assertWithMessage("Accepted events called, " + backPressure).that((long) exe.getCount()).isEqualTo(expected);
+                assertThat(pipeline.getPending()).isEqualTo(0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void stopped() throws InterruptedException {
+        final EventPipeline pipeline = new EventPipeline(new EventManager(), 4, 1, WaitStrategy.YIELD, BackPressure.BLOCK);
+        pipeline.start();
+        pipeline.stop();
+        pipeline.publish(new DummyEvent());
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.pravian.fabric.event.Events.DummyCancellableEvent;
+import net.pravian.fabric.event.Executors.CancellingEventExecutor;
+import net.pravian.fabric.event.Executors.CountingEventExecutor;
+import org.junit.Test;
+
+public class EventPoolTest {
+
+    @Test
+    public void reuse() {
+        final AtomicInteger created = new AtomicInteger();
+        EventPool<DummyCancellableEvent> pool = EventPool.of(() -> {
+            created.incrementAndGet();
+            return new DummyCancellableEvent();
+        });
+
+        DummyCancellableEvent event = pool.borrow();
+        event.setCancelled(true);
+        pool.release(event);
+
+        assertWithMessage("Event reused").that(pool.borrow()).isSameAs(event);
+        assertWithMessage("Event reset").that(event.isCancelled()).isFalse();
+        assertWithMessage("New event created when empty").that(pool.borrow()).isNotSameAs(event);
+        assertThat(created.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void doubleRelease() {
+        EventPool<DummyCancellableEvent> pool = EventPool.of(DummyCancellableEvent::new);
+        DummyCancellableEvent event = pool.borrow();
+        pool.release(event);
+
+        try {
+            pool.release(event);
+            assertWithMessage("Released twice").fail();
+        } catch (IllegalArgumentException ex) {
+        }
+
+        assertThat(pool.borrow()).isSameAs(event);
+        assertWithMessage("Only pooled once").that(pool.borrow()).isNotSameAs(event);
+    }
+
+    @Test
+    public void doubleReleaseOtherThread() throws InterruptedException {
+        final EventPool<DummyCancellableEvent> pool = EventPool.of(DummyCancellableEvent::new);
+        final DummyCancellableEvent event = pool.borrow();
+        pool.release(event);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                pool.release(event);
+            } catch (IllegalArgumentException ex) {
+                failure.set(ex);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertWithMessage("Released twice across threads").that(failure.get()).isNotNull();
+    }
+
+    @Test
+    public void doubleReleaseWhenFull() {
+        EventPool<DummyCancellableEvent> pool = EventPool.of(DummyCancellableEvent::new, 1);
+        DummyCancellableEvent event1 = pool.borrow();
+        DummyCancellableEvent event2 = pool.borrow();
+        pool.release(event1);
+        pool.release(event2); // Dropped, the pool is full
+
+        try {
+            pool.release(event2);
+            assertWithMessage("Released twice").fail();
+        } catch (IllegalArgumentException ex) {
+        }
+
+        assertThat(pool.borrow()).isSameAs(event1);
+        pool.release(event1);
+    }
+
+    @Test
+    public void capacity() {
+        EventPool<DummyCancellableEvent> pool = EventPool.of(DummyCancellableEvent::new, 1);
+
+        DummyCancellableEvent event1 = pool.borrow();
+        DummyCancellableEvent event2 = pool.borrow();
+        pool.release(event1);
+        pool.release(event2);
+
+        assertThat(pool.borrow()).isSameAs(event1);
+        assertWithMessage("Pool over capacity").that(pool.borrow()).isNotSameAs(event2);
+    }
+
+    @Test
+    public void perThread() throws InterruptedException {
+        final EventPool<DummyCancellableEvent> pool = EventPool.of(DummyCancellableEvent::new);
+        final DummyCancellableEvent event = pool.borrow();
+        pool.release(event);
+
+        final AtomicReference<DummyCancellableEvent> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(pool.borrow()));
+        thread.start();
+        thread.join();
+
+        assertWithMessage("Pools are per thread").that(other.get()).isNotSameAs(event);
+        assertThat(pool.borrow()).isSameAs(event);
+    }
+
+    @Test
+    public void call() {
+        final CancellingEventExecutor canceller = new CancellingEventExecutor(DummyCancellableEvent.class, 1);
+        final CountingEventExecutor counter = new CountingEventExecutor(DummyCancellableEvent.class, 2);
+
+        EventManager manager = new EventManager();
+        manager.register(canceller);
+        manager.register(counter);
+
+        EventPool<DummyCancellableEvent> pool = EventPool.of(DummyCancellableEvent::new);
+        pool.call(manager, event -> assertThat(event.isCancelled()).isFalse());
+        pool.call(manager, event -> assertWithMessage("Released event reset").that(event.isCancelled()).isFalse());
+
+        assertThat(canceller.getCount()).isEqualTo(2);
+        assertThat(counter.getCount()).isEqualTo(0);
+    }
+
+}
@@ -16,6 +16,7 @@
 package net.pravian.fabric.event;
 
 import static com.google.common.truth.Truth.*;
+import net.pravian.fabric.event.cancellable.AbstractCancellableEvent;
 
 public class Events {
 
@@ -28,6 +29,45 @@ public class Events {
     public static class OtherDummyEvent extends AbstractEvent {
     }
 
+    public static class DummyCancellableEvent extends AbstractCancellableEvent {
+    }
+
+    public static interface DummyInterface extends Event {
+    }
+
+    public static interface OtherDummyInterface extends Event {
+    }
+
+    public static class MultiInterfaceEvent extends DummyEvent implements DummyInterface, OtherDummyInterface {
+    }
+
+    public static class DummyKeyedEvent extends AbstractEvent implements KeyedEvent {
+
+        private final Object key;
+
+        public DummyKeyedEvent(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getRoutingKey() {
+            return key;
+        }
+    }
+
+    public static class ValueDummyEvent extends AbstractEvent {
+
+        private final int value;
+
+        public ValueDummyEvent(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
     public static class PriorityDummyEvent extends AbstractEvent {
 
         private int current = 1;
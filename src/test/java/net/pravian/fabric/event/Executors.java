@@ -15,8 +15,13 @@
  */
 package net.pravian.fabric.event;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.pravian.fabric.event.Events.DummyEvent;
 import net.pravian.fabric.event.Events.PriorityDummyEvent;
+import net.pravian.fabric.event.cancellable.CancellableEvent;
 
 public class Executors {
 
@@ -80,6 +85,69 @@ public class Executors {
 
     }
 
+    public static class CountingEventExecutor extends AbstractEventExecutor {
+
+        private final Class<?> eventClass;
+        private final int priority;
+        private final List<String> trace;
+        private final AtomicInteger count = new AtomicInteger();
+
+        public CountingEventExecutor(Class<?> eventClass, int priority) {
+            this(eventClass, priority, Collections.synchronizedList(new ArrayList<String>()));
+        }
+
+        public CountingEventExecutor(Class<?> eventClass, int priority, List<String> trace) {
+            this.eventClass = eventClass;
+            this.priority = priority;
+            this.trace = trace;
+        }
+
+        @Override
+        public Class<?> getEventClass() {
+            return eventClass;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void execute(Event event) throws EventException {
+            count.incrementAndGet();
+            trace.add(eventClass.getSimpleName() + ":" + priority);
+        }
+
+        public int getCount() {
+            return count.get();
+        }
+    }
+
+    public static class CancellingEventExecutor extends CountingEventExecutor {
+
+        public CancellingEventExecutor(Class<?> eventClass, int priority) {
+            super(eventClass, priority);
+        }
+
+        @Override
+        public void execute(Event event) throws EventException {
+            super.execute(event);
+            ((CancellableEvent) event).setCancelled(true);
+        }
+    }
+
+    public static class ObservingEventExecutor extends CountingEventExecutor {
+
+        public ObservingEventExecutor(Class<?> eventClass, int priority) {
+            super(eventClass, priority);
+        }
+
+        @Override
+        public boolean isIgnoringCancelled() {
+            return false;
+        }
+    }
+
     public static class ExceptionDummyEventExecutor extends AbstractEventExecutor {
 
         private final int priority;
@@ -104,4 +172,38 @@ public class Executors {
         }
     }
 
+    public static class RecordingEventExecutor extends AbstractEventExecutor {
+
+        private final Class<?> eventClass;
+        private final int priority;
+        private final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+
+        public RecordingEventExecutor(Class<?> eventClass) {
+            this(eventClass, 1);
+        }
+
+        public RecordingEventExecutor(Class<?> eventClass, int priority) {
+            this.eventClass = eventClass;
+            this.priority = priority;
+        }
+
+        @Override
+        public Class<?> getEventClass() {
+            return eventClass;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void execute(Event event) throws EventException {
+            events.add(event);
+        }
+
+        public List<Event> getEvents() {
+            return events;
+        }
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import net.pravian.fabric.event.TimerWheel.Timeout;
+import org.junit.Test;
+
+public class TimerWheelTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, nanos::get);
+
+    @Test
+    public void schedule() {
+        final AtomicInteger runs = new AtomicInteger();
+        final Timeout timeout = wheel.schedule(runs::incrementAndGet, 5, TimeUnit.MILLISECONDS);
+        assertThat(wheel.getPending()).isEqualTo(1);
+
+        advanceTo(4);
+        assertWithMessage("Not run early").that(runs.get()).isEqualTo(0);
+
+        advanceTo(5);
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(wheel.getPending()).isEqualTo(0);
+
+        advanceTo(100);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void cancel() {
+        final AtomicInteger runs = new AtomicInteger();
+        final Timeout timeout = wheel.schedule(runs::incrementAndGet, 5, TimeUnit.MILLISECONDS);
+        advanceTo(1);
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(wheel.getPending()).isEqualTo(0);
+
+        advanceTo(10);
+        assertThat(runs.get()).isEqualTo(0);
+        assertThat(timeout.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void repeating() {
+        final List<Long> ticks = new ArrayList<>();
+        final Timeout timeout = wheel.scheduleRepeating(() -> ticks.add(tick()), 10, 100, TimeUnit.MILLISECONDS);
+
+        for (int i = 1; i <= 320; i++) {
+            advanceTo(i);
+        }
+
+        assertThat(ticks).containsExactly(10L, 110L, 210L, 310L).inOrder();
+        timeout.cancel();
+        advanceTo(1000);
+        assertThat(ticks).hasSize(4);
+    }
+
+    @Test
+    public void cancelRepeatingOnSameTick() {
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicReference<Timeout> repeating = new AtomicReference<>();
+        final List<Boolean> cancelled = new ArrayList<>();
+        wheel.schedule(() -> cancelled.add(repeating.get().cancel()), 5, TimeUnit.MILLISECONDS);
+        repeating.set(wheel.scheduleRepeating(runs::incrementAndGet, 5, 10, TimeUnit.MILLISECONDS));
+
+        advanceTo(5);
+        assertThat(cancelled).containsExactly(true);
+        assertWithMessage("Cancelled before it was due").that(runs.get()).isEqualTo(0);
+
+        advanceTo(100);
+        assertThat(runs.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void cascadeCountsRuns() {
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(runs::incrementAndGet, 64, TimeUnit.MILLISECONDS);
+        wheel.schedule(runs::incrementAndGet, 4096, TimeUnit.MILLISECONDS);
+
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(63));
+        assertThat(wheel.advance()).isEqualTo(0);
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(64));
+        assertWithMessage("Run while cascading").that(wheel.advance()).isEqualTo(1);
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(4096));
+        assertThat(wheel.advance()).isEqualTo(1);
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void levels() {
+        final long[] delays = {63, 64, 65, 4095, 4096, 4097, 262143, 262144, (1 << 24) - 1, 1 << 24, (1 << 24) + 4321};
+        final List<Long> ticks = new ArrayList<>();
+        for (long delay : delays) {
+            wheel.schedule(() -> ticks.add(tick()), delay, TimeUnit.MILLISECONDS);
+        }
+
+        for (long delay : delays) {
+            advanceTo(delay - 1);
+            assertWithMessage("Not run before " + delay).that(ticks).doesNotContain(delay);
+            advanceTo(delay);
+        }
+
+        assertWithMessage("Each run exactly on its deadline").that(ticks).containsExactlyElementsIn(toList(delays)).inOrder();
+    }
+
+    @Test
+    public void random() {
+        final Random random = new Random(42);
+        final List<long[]> runs = new ArrayList<>(); // { deadline, tick }
+        final List<Timeout> timeouts = new ArrayList<>();
+
+        for (int i = 0; i < 10000; i++) {
+            final long deadline = 1 + random.nextInt(300000);
+            timeouts.add(wheel.schedule(() -> runs.add(new long[]{deadline, tick()}), deadline, TimeUnit.MILLISECONDS));
+        }
+
+        int cancelled = 0;
+        for (int i = 0; i < timeouts.size(); i += 10) {
+            timeouts.get(i).cancel();
+            cancelled++;
+        }
+
+        for (long tick = 1; tick <= 300000; tick += 1 + random.nextInt(3)) {
+            advanceTo(tick);
+        }
+        advanceTo(300000);
+
+        assertThat(runs).hasSize(10000 - cancelled);
+        for (long[] run : runs) {
+            assertWithMessage("Run on time").that(run[1]).isAtLeast(run[0]);
+            assertWithMessage("Run without delay").that(run[1] - run[0]).isAtMost(3L);
+        }
+        assertThat(wheel.getPending()).isEqualTo(0);
+    }
+
+    @Test
+    public void eventManager() {
+        final CountingEventExecutorHolder holder = new CountingEventExecutorHolder();
+        EventManager manager = new EventManager();
+        manager.setTimerWheel(wheel);
+        manager.register(holder.exe);
+
+        manager.schedule(new Events.DummyEvent(), 20, TimeUnit.MILLISECONDS);
+        final Timeout repeating = manager.scheduleRepeating(new Events.DummyEvent(), 10, 10, TimeUnit.MILLISECONDS);
+
+        advanceTo(15);
+        assertThat(holder.exe.getCount()).isEqualTo(1);
+        advanceTo(20);
+        assertWithMessage("Scheduled and repeating").that(holder.exe.getCount()).isEqualTo(3);
+
+        repeating.cancel();
+        advanceTo(50);
+        assertThat(holder.exe.getCount()).isEqualTo(3);
+    }
+
+    private void advanceTo(long tick) {
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(tick));
+        wheel.advance();
+    }
+
+    private long tick() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    private static List<Long> toList(long[] values) {
+        final List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static class CountingEventExecutorHolder {
+
+        private final Executors.CountingEventExecutor exe = new Executors.CountingEventExecutor(Events.DummyEvent.class, 1);
+    }
+
+}
@@ -17,14 +17,33 @@ package net.pravian.fabric.event.annotation;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import net.pravian.fabric.event.EventException;
 import net.pravian.fabric.event.EventExecutor;
 import net.pravian.fabric.event.EventManager;
 import net.pravian.fabric.event.Events;
 import net.pravian.fabric.event.Events.DummyEvent;
+import net.pravian.fabric.event.Events.DummyKeyedEvent;
+import net.pravian.fabric.event.ExecutionContext;
+import net.pravian.fabric.event.Subscription;
+import net.pravian.fabric.event.annotation.Listeners.AsyncDummyListener;
+import net.pravian.fabric.event.annotation.Listeners.AsyncExceptionListener;
+import net.pravian.fabric.event.annotation.Listeners.BlockingListener;
 import net.pravian.fabric.event.annotation.Listeners.DummyListener;
+import net.pravian.fabric.event.annotation.Listeners.ErrorDummyListener;
 import net.pravian.fabric.event.annotation.Listeners.ExceptionDummyListener;
+import net.pravian.fabric.event.annotation.Listeners.KeyedListener;
+import net.pravian.fabric.event.annotation.Listeners.MainThreadListener;
+import net.pravian.fabric.event.annotation.MethodEventExecutor.Invocation;
 import org.junit.Test;
 
 public class AnnotationEventTest {
@@ -137,4 +156,438 @@ public class AnnotationEventTest {
             assertWithMessage("Exception not wrapped").that(ex.getCause()).isInstanceOf(EventException.class);
         }
     }
+
+    @Test
+    public void invocation() {
+        DummyListener listener = new DummyListener();
+
+        List<MethodEventExecutor> exes = MethodEventExecutor.createExecutors(listener);
+        assertThat(exes.size()).isEqualTo(1);
+        assertWithMessage("Direct invocation").that(exes.get(0).getInvocation()).isEqualTo(Invocation.METHOD_HANDLE);
+
+        exes = MethodEventExecutor.createExecutors(listener, Invocation.REFLECTION);
+        assertWithMessage("Reflective invocation").that(exes.get(0).getInvocation()).isEqualTo(Invocation.REFLECTION);
+
+        EventManager manager = new EventManager();
+        manager.register(exes.get(0));
+
+        DummyEvent event = new DummyEvent();
+        manager.call(event);
+
+        assertWithMessage("Event processed").that(listener.isProcessed()).isTrue();
+        assertWithMessage("Correct event").that(listener.getEvent()).isEqualTo(event);
+    }
+
+    @Test
+    public void reflectiveExceptionHandling() {
+        EventManager manager = new EventManager();
+        manager.register(MethodEventExecutor.createExecutors(new ExceptionDummyListener(), Invocation.REFLECTION).get(0));
+
+        try {
+            manager.call(new DummyEvent());
+            assertWithMessage("No exception thrown").fail();
+        } catch (Exception ex) {
+            assertWithMessage("Exception not wrapped").that(ex.getCause()).isInstanceOf(EventException.class);
+        }
+    }
+
+    @Test
+    public void asyncListener() throws Exception {
+        final ExecutorService service = java.util.concurrent.Executors.newSingleThreadExecutor();
+
+        try {
+            EventManager manager = new EventManager();
+            manager.setAsyncExecutor(service);
+
+            AsyncDummyListener listener = new AsyncDummyListener();
+            manager.register(listener);
+            assertThat(manager.getExecutors(DummyEvent.class)[0].isAsync()).isTrue();
+
+            manager.call(new DummyEvent());
+            assertThat(listener.getLatch().await(5, TimeUnit.SECONDS)).isTrue();
+            assertWithMessage("Processed off the calling thread").that(listener.getThread()).isNotEqualTo(Thread.currentThread());
+
+            DummyEvent event = new DummyEvent();
+            assertWithMessage("Completed with event").that(manager.callAsync(event).get(5, TimeUnit.SECONDS)).isEqualTo(event);
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncListenerException() throws Exception {
+        final BlockingQueue<Throwable> reported = new LinkedBlockingQueue<>();
+        EventManager manager = new EventManager();
+        manager.setAsyncExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler((t, ex) -> reported.add(ex));
+            thread.start();
+        });
+        manager.register(new AsyncExceptionListener());
+
+        manager.call(new DummyEvent());
+        final Throwable failure = reported.poll(5, TimeUnit.SECONDS);
+        assertWithMessage("Async failure reported").that(failure).isNotNull();
+        assertThat(failure.getCause()).isInstanceOf(EventException.class);
+
+        manager.callAll(DummyEvent.class, Arrays.asList(new DummyEvent()));
+        assertWithMessage("Batch failure reported").that(reported.poll(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    public void indexedError() {
+        assertThat(ListenerIndex.forClass(ErrorDummyListener.class)).isNotNull();
+
+        for (boolean indexed : new boolean[]{false, true}) {
+            final List<EventException> handled = new ArrayList<>();
+            EventManager manager = new EventManager();
+            manager.setExceptionHandler(handled::add);
+            final ErrorDummyListener listener = new ErrorDummyListener();
+            manager.register(indexed ? ListenerIndex.forClass(ErrorDummyListener.class).createExecutors(listener)
+                    : MethodEventExecutor.createExecutors(listener));
+
+            manager.call(new DummyEvent());
+            assertWithMessage("Error wrapped, indexed: " + indexed).that(handled).hasSize(1);
+            assertThat(handled.get(0).getCause()).isInstanceOf(AssertionError.class);
+        }
+    }
+
+    @Test
+    public void compiledError() {
+        for (boolean compiled : new boolean[]{false, true}) {
+            final List<EventException> handled = new ArrayList<>();
+            EventManager manager = new EventManager();
+            manager.setExceptionHandler(handled::add);
+            DummyListener listener = new DummyListener();
+            manager.register(MethodEventExecutor.createExecutors(new ErrorDummyListener()));
+            manager.register(listener);
+            manager.setCompiled(DummyEvent.class, compiled);
+            assertThat(manager.isCompiled(DummyEvent.class)).isEqualTo(compiled);
+
+            manager.call(new DummyEvent());
+            assertWithMessage("Error handled, compiled: " + compiled).that(handled).hasSize(1);
+            assertThat(handled.get(0).getCause()).isInstanceOf(AssertionError.class);
+            assertWithMessage("Later handlers still ran").that(listener.isProcessed()).isTrue();
+        }
+    }
+
+    @Test
+    public void blockingListener() throws Exception {
+        EventManager manager = new EventManager();
+        BlockingListener listener = new BlockingListener();
+        manager.register(listener);
+        assertThat(manager.getExecutors(DummyEvent.class)[0].isBlocking()).isTrue();
+
+        manager.call(new DummyEvent());
+
+        assertWithMessage("Blocking handlers joined before later handlers").that(listener.isJoined()).isTrue();
+        assertWithMessage("Blocking handlers ran concurrently").that(listener.getThreads()).hasSize(2);
+        assertThat(listener.getThreads()).doesNotContain(Thread.currentThread());
+    }
+
+    @Test
+    public void stickyBlockingListener() throws Exception {
+        EventManager manager = new EventManager();
+        manager.setSticky(DummyEvent.class, true);
+        manager.call(new DummyEvent());
+
+        BlockingListener listener = new BlockingListener();
+        manager.register(listener);
+
+        assertWithMessage("Sticky event joined like a call").that(listener.isJoined()).isTrue();
+        assertThat(listener.getThreads()).hasSize(2);
+        assertWithMessage("Not run on the registering thread").that(listener.getThreads()).doesNotContain(Thread.currentThread());
+    }
+
+    @Test
+    public void blockingFireAndForget() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        EventManager manager = new EventManager();
+        manager.setBlockingMode(EventManager.BlockingMode.FIRE_AND_FORGET);
+        manager.setBlockingExecutor(tasks::add);
+        BlockingListener listener = new BlockingListener();
+        manager.register(listener);
+
+        manager.call(new DummyEvent());
+        assertWithMessage("Later handler didn't wait").that(listener.isJoined()).isFalse();
+        assertThat(tasks).hasSize(2);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (Runnable task : tasks) {
+            final Thread thread = new Thread(task);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(listener.getLatch().getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void mainThreadContext() throws Exception {
+        EventManager manager = new EventManager();
+        MainThreadListener listener = new MainThreadListener();
+        manager.register(listener);
+        assertThat(manager.getExecutors(DummyEvent.class)[0].getContext()).isEqualTo(ExecutionContext.MAIN);
+        assertThat(MethodEventExecutor.createExecutors(listener).get(0).getContext()).isEqualTo(ExecutionContext.MAIN);
+
+        final ExecutionContext main = manager.getContext(ExecutionContext.MAIN);
+        main.bind();
+
+        final Thread network = new Thread(() -> manager.call(new DummyEvent()));
+        network.start();
+        network.join();
+        assertWithMessage("Handed off to the owner").that(listener.getThreads()).isEmpty();
+        assertThat(main.getPending()).isEqualTo(1);
+
+        manager.call(new DummyEvent());
+        assertWithMessage("Ran inline on the owner").that(listener.getThreads()).containsExactly(Thread.currentThread());
+
+        assertThat(main.drain()).isEqualTo(1);
+        assertThat(listener.getThreads()).containsExactly(Thread.currentThread(), Thread.currentThread());
+        assertThat(main.getPending()).isEqualTo(0);
+    }
+
+    @Test
+    public void stickyMainThreadContext() throws Exception {
+        EventManager manager = new EventManager();
+        manager.setSticky(DummyEvent.class, true);
+        manager.call(new DummyEvent());
+        final ExecutionContext main = manager.getContext(ExecutionContext.MAIN);
+        main.bind();
+
+        MainThreadListener listener = new MainThreadListener();
+        final Thread loader = new Thread(() -> manager.register(listener));
+        loader.start();
+        loader.join();
+        assertWithMessage("Not run on the registering thread").that(listener.getThreads()).isEmpty();
+
+        assertThat(main.drain()).isEqualTo(1);
+        assertThat(listener.getThreads()).containsExactly(Thread.currentThread());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void drainOffOwner() throws Exception {
+        final ExecutionContext context = new ExecutionContext(ExecutionContext.MAIN);
+        final Thread owner = new Thread(context::bind);
+        owner.start();
+        owner.join();
+
+        context.drain();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void bindOffOwner() throws Exception {
+        final ExecutionContext context = new ExecutionContext(ExecutionContext.MAIN);
+        final Thread owner = new Thread(context::drain);
+        owner.start();
+        owner.join();
+
+        context.bind();
+    }
+
+    @Test
+    public void poolContext() {
+        final List<Runnable> tasks = new ArrayList<>();
+        EventManager manager = new EventManager();
+        manager.setAsyncExecutor(Runnable::run);
+        manager.setContext(new ExecutionContext(ExecutionContext.MAIN, tasks::add));
+        MainThreadListener listener = new MainThreadListener();
+        manager.register(listener);
+
+        final CompletableFuture<?> future = manager.callAsync(new DummyEvent());
+        assertThat(tasks).hasSize(1);
+        assertWithMessage("Waits for the pool").that(future.isDone()).isFalse();
+
+        tasks.get(0).run();
+        assertThat(listener.getThreads()).hasSize(1);
+        future.join();
+    }
+
+    @Test
+    public void weakListener() throws InterruptedException {
+        EventManager manager = new EventManager();
+        DummyListener listener = new DummyListener();
+        manager.registerWeak(listener);
+
+        manager.call(new DummyEvent());
+        assertThat(listener.isProcessed()).isTrue();
+        assertWithMessage("Nothing collected yet").that(manager.purgeWeakListeners()).isEqualTo(0);
+
+        final WeakReference<DummyListener> collected = new WeakReference<>(listener);
+        listener = null;
+        for (int i = 0; i < 50 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertWithMessage("Listener collected").that(collected.get()).isNull();
+
+        manager.call(new DummyEvent()); // Collected but not pruned yet
+        for (int i = 0; i < 50 && manager.getExecutors(DummyEvent.class).length > 0; i++) {
+            manager.purgeWeakListeners();
+            Thread.sleep(10);
+        }
+        assertWithMessage("Executors pruned").that(manager.getBakedExecutors()).isEmpty();
+    }
+
+    @Test
+    public void weakMethodExecutors() {
+        for (Invocation invocation : Invocation.values()) {
+            DummyListener listener = new DummyListener();
+            final List<MethodEventExecutor> exes = MethodEventExecutor.createExecutors(new WeakReference<>(listener), invocation);
+            assertThat(exes).hasSize(1);
+            assertThat(exes.get(0).isWeak()).isTrue();
+            assertThat(exes.get(0).getInvocation()).isEqualTo(invocation);
+            assertWithMessage("Receiver not bound").that(exes.get(0).getMethodHandle()).isNull();
+
+            EventManager manager = new EventManager();
+            manager.register(exes.get(0));
+            manager.call(new DummyEvent());
+            assertThat(listener.isProcessed()).isTrue();
+        }
+
+        final MethodEventExecutor cleared = MethodEventExecutor.createExecutors(new WeakReference<>(new DummyListener()), Invocation.METHOD_HANDLE).get(0);
+        final WeakReference<Listener> empty = new WeakReference<>(null);
+        final MethodEventExecutor dead = new MethodEventExecutor(empty, HandlerDescriptor.of(cleared.getMethod()), Invocation.METHOD_HANDLE);
+        EventManager manager = new EventManager();
+        manager.register(dead);
+        manager.call(new DummyEvent()); // Does nothing once the reference is cleared
+    }
+
+    @Test
+    public void unregister() {
+        EventManager manager = new EventManager();
+
+        DummyListener listener1 = new DummyListener();
+        DummyListener listener2 = new DummyListener();
+        Subscription sub = manager.register(listener1);
+        manager.register(listener2);
+
+        assertThat(manager.unregister(listener2)).isTrue();
+        manager.call(new DummyEvent());
+
+        assertThat(listener1.isProcessed()).isTrue();
+        assertWithMessage("Unregistered listener processed").that(listener2.isProcessed()).isFalse();
+
+        sub.close();
+        assertThat(manager.getBakedExecutors()).isEmpty();
+    }
+
+    @Test
+    public void keyedListener() {
+        EventManager manager = new EventManager();
+
+        KeyedListener arena1 = new KeyedListener();
+        KeyedListener arena2 = new KeyedListener();
+        manager.register(arena1, 1);
+        manager.register(arena2, 2);
+
+        manager.call(new DummyKeyedEvent(1));
+        manager.call(new DummyKeyedEvent(2));
+        manager.call(new DummyKeyedEvent(2));
+
+        assertThat(arena1.getKeys()).containsExactly(1);
+        assertThat(arena2.getKeys()).containsExactly(2, 2);
+
+        assertThat(manager.unregister(arena2)).isTrue();
+        manager.call(new DummyKeyedEvent(2));
+        assertThat(arena2.getKeys()).hasSize(2);
+    }
+
+    @Test
+    public void compiledListener() {
+        EventManager manager = new EventManager();
+        manager.setCompiled(DummyEvent.class, true);
+
+        DummyListener listener = new DummyListener();
+        manager.register(listener);
+        manager.register(MethodEventExecutor.createExecutors(new ExceptionDummyListener(), Invocation.REFLECTION));
+
+        final List<EventException> exceptions = new ArrayList<>();
+        manager.setExceptionHandler(exceptions::add);
+
+        DummyEvent event = new DummyEvent();
+        manager.call(event);
+
+        assertThat(manager.isCompiled(DummyEvent.class)).isTrue();
+        assertWithMessage("Correct event").that(listener.getEvent()).isEqualTo(event);
+        assertWithMessage("Exception handled").that(exceptions).hasSize(1);
+    }
+
+    @Test
+    public void ignoreCancelled() {
+        for (MethodEventExecutor exe : MethodEventExecutor.createExecutors(new Listeners.ObservingListener())) {
+            final boolean observer = !exe.getMethod().getName().equals("onDefault");
+            assertWithMessage(exe.getMethod().getName()).that(exe.isIgnoringCancelled()).isEqualTo(!observer);
+        }
+    }
+
+    @Test
+    public void generatedIndex() {
+        assertWithMessage("Index generated").that(ListenerIndex.forClass(DummyListener.class)).isNotNull();
+        assertWithMessage("No index for invalid listener").that(ListenerIndex.forClass(Listeners.InvalidDummyListener1.class)).isNull();
+
+        EventManager manager = new EventManager();
+        manager.register(new Listeners.LowPriorityListener());
+        manager.register(new Listeners.ObservingListener());
+
+        EventExecutor exe = manager.getExecutors(DummyEvent.class)[0];
+        assertWithMessage("Generated executor used").that(exe).isInstanceOf(ListenerEventExecutor.class);
+        assertThat(exe).isNotInstanceOf(MethodEventExecutor.class);
+        assertThat(exe.getPriority()).isEqualTo(EventPriority.LOW.getPriority());
+
+        int observers = 0;
+        for (EventExecutor observer : manager.getExecutors(Events.DummyCancellableEvent.class)) {
+            observers += observer.isIgnoringCancelled() ? 0 : 1;
+        }
+        assertThat(observers).isEqualTo(2);
+    }
+
+    @Test
+    public void inheritedHandlers() {
+        Listeners.DummySubListener listener = new Listeners.DummySubListener();
+
+        assertWithMessage("Inherited handlers found once").that(MethodEventExecutor.createExecutors(listener)).hasSize(2);
+        assertThat(ListenerIndex.forClass(Listeners.DummySubListener.class).createExecutors(listener)).hasSize(2);
+    }
+
+    @Test
+    public void handlerDescriptors() {
+        List<HandlerDescriptor> descriptors = HandlerDescriptor.forClass(DummyListener.class);
+        assertWithMessage("Descriptors cached").that(HandlerDescriptor.forClass(DummyListener.class)).isSameAs(descriptors);
+        assertThat(descriptors).hasSize(1);
+        assertThat(descriptors.get(0).getEventClass()).isEqualTo(DummyEvent.class);
+        assertThat(descriptors.get(0).getPriority()).isEqualTo(EventPriority.NORMAL.getPriority());
+
+        DummyListener listener1 = new DummyListener();
+        DummyListener listener2 = new DummyListener();
+        EventManager manager = new EventManager();
+        manager.register(MethodEventExecutor.createExecutors(listener1));
+        manager.register(MethodEventExecutor.createExecutors(listener2));
+
+        DummyEvent event = new DummyEvent();
+        manager.call(event);
+        assertWithMessage("Receiver bound per instance").that(listener1.getEvent()).isEqualTo(event);
+        assertWithMessage("Receiver bound per instance").that(listener2.getEvent()).isEqualTo(event);
+
+        try {
+            HandlerDescriptor.forClass(Listeners.InvalidDummyListener2.class);
+            assertWithMessage("Invalid handler cached").fail();
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void staticHandler() {
+        final int processed = Listeners.StaticDummyListener.getProcessed();
+
+        EventManager manager = new EventManager();
+        manager.register(MethodEventExecutor.createExecutors(new Listeners.StaticDummyListener()));
+        manager.register(MethodEventExecutor.createExecutors(new Listeners.StaticDummyListener(), Invocation.REFLECTION));
+        manager.register(new Listeners.StaticDummyListener());
+        manager.call(new DummyEvent());
+
+        assertThat(Listeners.StaticDummyListener.getProcessed()).isEqualTo(processed + 3);
+    }
 }
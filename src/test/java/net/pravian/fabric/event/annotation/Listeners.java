@@ -15,9 +15,19 @@
  */
 package net.pravian.fabric.event.annotation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.pravian.fabric.event.Events.DummyCancellableEvent;
 import net.pravian.fabric.event.Events.DummyEvent;
+import net.pravian.fabric.event.Events.DummyKeyedEvent;
 import net.pravian.fabric.event.Events.OtherDummyEvent;
+import net.pravian.fabric.event.ExecutionContext;
 
 public class Listeners {
 
@@ -70,6 +80,134 @@ public class Listeners {
 
     }
 
+    public static class AsyncDummyListener implements Listener {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        @Register(async = true)
+        public void onEvent(DummyEvent event) {
+            this.thread = Thread.currentThread();
+            latch.countDown();
+        }
+
+        public Thread getThread() {
+            return thread;
+        }
+
+        public CountDownLatch getLatch() {
+            return latch;
+        }
+    }
+
+    public static class AsyncExceptionListener implements Listener {
+
+        @Register(async = true)
+        public void onEvent(DummyEvent event) {
+            throw new RuntimeException("42");
+        }
+    }
+
+    public static class BlockingListener implements Listener {
+
+        private final CountDownLatch latch = new CountDownLatch(2);
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private volatile boolean joined;
+
+        @Register(blocking = true)
+        public void onFirst(DummyEvent event) throws InterruptedException {
+            block();
+        }
+
+        @Register(blocking = true)
+        public void onSecond(DummyEvent event) throws InterruptedException {
+            block();
+        }
+
+        @Register
+        @Modify(priority = EventPriority.HIGH)
+        public void onAfter(DummyEvent event) {
+            joined = latch.getCount() == 0;
+        }
+
+        // Only returns in time if both blocking handlers run concurrently
+        private void block() throws InterruptedException {
+            threads.add(Thread.currentThread());
+            latch.countDown();
+            latch.await(5, TimeUnit.SECONDS);
+        }
+
+        public Set<Thread> getThreads() {
+            return threads;
+        }
+
+        public boolean isJoined() {
+            return joined;
+        }
+
+        public CountDownLatch getLatch() {
+            return latch;
+        }
+    }
+
+    public static class MainThreadListener implements Listener {
+
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        @Register(context = ExecutionContext.MAIN)
+        public void onEvent(DummyEvent event) {
+            threads.add(Thread.currentThread());
+        }
+
+        public List<Thread> getThreads() {
+            return threads;
+        }
+    }
+
+    public static class KeyedListener implements Listener {
+
+        private final List<Object> keys = new ArrayList<>();
+
+        @Register
+        public void onEvent(DummyKeyedEvent event) {
+            keys.add(event.getRoutingKey());
+        }
+
+        public List<Object> getKeys() {
+            return keys;
+        }
+    }
+
+    public static class ObservingListener implements Listener {
+
+        @Register
+        public void onDefault(DummyCancellableEvent event) {
+        }
+
+        @Register(ignoreCancelled = false)
+        public void onRegister(DummyCancellableEvent event) {
+        }
+
+        @Register
+        @Modify(ignoreCancelled = false, priority = EventPriority.MONITOR_OUT)
+        public void onModify(DummyCancellableEvent event) {
+        }
+    }
+
+    public static class StaticDummyListener implements Listener {
+
+        private static int processed = 0;
+
+        @Register
+        public static void onEvent(DummyEvent event) {
+            processed++;
+        }
+
+        public static int getProcessed() {
+            return processed;
+        }
+    }
+
     public static class ExceptionDummyListener implements Listener {
 
         @Register
@@ -79,6 +217,16 @@ public class Listeners {
 
     }
 
+    public static class ErrorDummyListener implements Listener {
+
+        @Register
+        @Modify(priority = EventPriority.LOWEST)
+        public void onEvent(DummyEvent event) {
+            throw new AssertionError("42");
+        }
+
+    }
+
     public static class InvalidDummyListener1 implements Listener {
 
         @Register
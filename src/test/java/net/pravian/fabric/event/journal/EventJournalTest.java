@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.event.journal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.pravian.fabric.event.AbstractEvent;
+import net.pravian.fabric.event.Event;
+import net.pravian.fabric.event.EventManager;
+import net.pravian.fabric.event.Events.DummyEvent;
+import net.pravian.fabric.event.Events.ValueDummyEvent;
+import net.pravian.fabric.event.Executors.RecordingEventExecutor;
+import net.pravian.fabric.event.journal.JournalReplayer.Speed;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EventJournalTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordAndReplay() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        EventManager manager = new EventManager();
+        try (EventJournal journal = new EventJournal(directory, new ValueCodec(), 1024)) {
+            manager.setJournal(journal);
+            for (int i = 0; i < 500; i++) {
+                manager.call(new ValueDummyEvent(i));
+            }
+            manager.call(new DummyEvent()); // Skipped by the codec
+
+            assertThat(journal.getRecords()).isEqualTo(500);
+        }
+        assertWithMessage("Split over segments").that(EventJournal.segments(directory).size()).isGreaterThan(1);
+
+        final List<Integer> values = replay(directory, new ValueCodec(), Speed.MAXIMUM);
+        assertThat(values).hasSize(500);
+        for (int i = 0; i < values.size(); i++) {
+            assertThat(values.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void appendsSegments() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        try (EventJournal journal = new EventJournal(directory, new ValueCodec(), 1024)) {
+            journal.append(new ValueDummyEvent(1));
+        }
+        try (EventJournal journal = new EventJournal(directory, new ValueCodec(), 1024)) {
+            journal.append(new ValueDummyEvent(2));
+        }
+
+        assertThat(replay(directory, new ValueCodec(), Speed.MAXIMUM)).containsExactly(1, 2).inOrder();
+    }
+
+    @Test
+    public void recordedSpeed() throws Exception {
+        final Path directory = folder.getRoot().toPath();
+        try (EventJournal journal = new EventJournal(directory, new ValueCodec(), 1024)) {
+            journal.append(new ValueDummyEvent(1));
+            Thread.sleep(100);
+            journal.append(new ValueDummyEvent(2));
+        }
+
+        final long start = System.nanoTime();
+        assertThat(replay(directory, new ValueCodec(), Speed.RECORDED)).containsExactly(1, 2).inOrder();
+        assertWithMessage("Interval kept").that(System.nanoTime() - start).isAtLeast(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test(expected = IOException.class)
+    public void oversizedEvent() throws IOException {
+        try (EventJournal journal = new EventJournal(folder.getRoot().toPath(), new SerializableEventCodec(), 64)) {
+            journal.append(new SerializableEvent("This event is too large for a 64 byte segment"));
+        }
+    }
+
+    @Test
+    public void serializableCodec() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        try (EventJournal journal = new EventJournal(directory, new SerializableEventCodec())) {
+            assertThat(journal.append(new SerializableEvent("first"))).isTrue();
+            assertWithMessage("Not serializable").that(journal.append(new DummyEvent())).isFalse();
+            assertThat(journal.append(new SerializableEvent("second"))).isTrue();
+        }
+
+        final RecordingEventExecutor exe = new RecordingEventExecutor(SerializableEvent.class);
+        EventManager manager = new EventManager();
+        manager.register(exe);
+        assertThat(new JournalReplayer(directory, new SerializableEventCodec()).replay(manager, Speed.MAXIMUM)).isEqualTo(2);
+        assertThat(((SerializableEvent) exe.getEvents().get(1)).getMessage()).isEqualTo("second");
+    }
+
+    @Test
+    public void serializableCodecFiltersClasses() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        assertThat(new SerializableEventCodec().encode(new PayloadEvent(new Payload()), buffer)).isTrue();
+        buffer.flip();
+
+        try {
+            new SerializableEventCodec().decode(buffer.duplicate());
+            fail("Payload class is not allowed");
+        } catch (InvalidClassException ex) {
+            assertThat(ex.getMessage()).contains(Payload.class.getName());
+        }
+
+        final Event event = new SerializableEventCodec(Payload.class.getPackage().getName()).decode(buffer);
+        assertThat(((PayloadEvent) event).getPayload()).isNotNull();
+    }
+
+    private static List<Integer> replay(Path directory, EventCodec codec, Speed speed) throws IOException {
+        final RecordingEventExecutor exe = new RecordingEventExecutor(ValueDummyEvent.class);
+        EventManager manager = new EventManager();
+        manager.register(exe);
+        new JournalReplayer(directory, codec).replay(manager, speed);
+
+        final List<Integer> values = new ArrayList<>();
+        for (Event event : exe.getEvents()) {
+            values.add(((ValueDummyEvent) event).getValue());
+        }
+        return values;
+    }
+
+    private static class ValueCodec implements EventCodec {
+
+        @Override
+        public boolean encode(Event event, ByteBuffer buffer) {
+            if (!(event instanceof ValueDummyEvent)) {
+                return false;
+            }
+
+            buffer.putInt(((ValueDummyEvent) event).getValue());
+            return true;
+        }
+
+        @Override
+        public Event decode(ByteBuffer buffer) {
+            return new ValueDummyEvent(buffer.getInt());
+        }
+    }
+
+    public static class Payload implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class PayloadEvent extends AbstractEvent implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final Payload payload;
+
+        public PayloadEvent(Payload payload) {
+            this.payload = payload;
+        }
+
+        public Payload getPayload() {
+            return payload;
+        }
+    }
+
+    public static class SerializableEvent extends AbstractEvent implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final String message;
+
+        public SerializableEvent(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+}
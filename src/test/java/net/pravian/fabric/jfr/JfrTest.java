@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Jerom van der Sar.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.pravian.fabric.jfr;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.mockito.Mockito.mock;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.pravian.fabric.config.file.adapter.yaml.YamlConfig;
+import net.pravian.fabric.event.EventManager;
+import net.pravian.fabric.event.Events.DummyCancellableEvent;
+import net.pravian.fabric.event.Executors.CancellingEventExecutor;
+import net.pravian.fabric.event.Executors.CountingEventExecutor;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JfrTest {
+
+    @Before
+    public void available() {
+        Assume.assumeTrue(JfrSupport.AVAILABLE);
+    }
+
+    @Test
+    public void dispatch() throws Exception {
+        EventManager manager = new EventManager();
+        manager.register(new CancellingEventExecutor(DummyCancellableEvent.class, 1));
+        manager.register(new CountingEventExecutor(DummyCancellableEvent.class, 2));
+
+        final List<RecordedEvent> records = record(() -> manager.call(new DummyCancellableEvent()), true);
+        final List<RecordedEvent> dispatches = filter(records, DispatchRecord.NAME);
+
+        assertThat(dispatches).hasSize(1);
+        assertThat(dispatches.get(0).getClass("eventClass").getName()).isEqualTo(DummyCancellableEvent.class.getName());
+        assertWithMessage("Cancelled before the second executor").that(dispatches.get(0).getInt("executors")).isEqualTo(1);
+        assertThat(dispatches.get(0).getBoolean("cancelled")).isTrue();
+        assertWithMessage("Zero threshold records every executor").that(filter(records, ExecutorRecord.NAME)).hasSize(1);
+    }
+
+    @Test
+    public void config() throws Exception {
+        final File file = Files.createTempFile("fabric", ".yml").toFile();
+        file.deleteOnExit();
+        final YamlConfig config = new YamlConfig(mock(Logger.class));
+        config.set("some.string", "stringy");
+
+        final List<RecordedEvent> records = filter(record(() -> {
+            config.saveTo(file);
+            config.loadFrom(file);
+        }, true), ConfigRecord.NAME);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getString("operation")).isEqualTo("save");
+        assertThat(records.get(1).getString("operation")).isEqualTo("load");
+        assertThat(records.get(1).getString("file")).isEqualTo(file.getPath());
+        assertThat(records.get(1).getLong("size")).isEqualTo(file.length());
+        assertThat(records.get(1).getBoolean("success")).isTrue();
+    }
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        EventManager manager = new EventManager();
+        manager.register(new CountingEventExecutor(DummyCancellableEvent.class, 1));
+
+        final List<RecordedEvent> records = record(() -> manager.call(new DummyCancellableEvent()), false);
+        assertThat(filter(records, DispatchRecord.NAME)).isEmpty();
+        assertThat(filter(records, ExecutorRecord.NAME)).isEmpty();
+    }
+
+    private static List<RecordedEvent> record(Runnable action, boolean enable) throws Exception {
+        final Path dump = Files.createTempFile("fabric", ".jfr");
+        try (Recording recording = new Recording()) {
+            if (enable) {
+                recording.enable(DispatchRecord.NAME);
+                recording.enable(ExecutorRecord.NAME).withThreshold(Duration.ZERO);
+                recording.enable(ConfigRecord.NAME);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static List<RecordedEvent> filter(List<RecordedEvent> records, String name) {
+        final List<RecordedEvent> filtered = new ArrayList<>();
+        for (RecordedEvent record : records) {
+            if (record.getEventType().getName().equals(name)) {
+                filtered.add(record);
+            }
+        }
+        return filtered;
+    }
+
+}